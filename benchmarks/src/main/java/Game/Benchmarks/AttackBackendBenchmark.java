@@ -0,0 +1,95 @@
+package Game.Benchmarks;
+
+import Game.AI.MagicBitboard;
+import Game.AI.Minimax;
+import Game.AI.Positions;
+import Game.AI.SearchControl;
+import Game.AI.SearchOptions;
+import Game.Model;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// MagicBitboard's tables against LineAttacks while several cores compete for the cache. The backend is fixed
+// when MagicBitboard loads, so Magic and Lines run the same benchmarks each in its own fork.
+// Set the number of cores with -jvmArgsAppend -XX:ActiveProcessorCount=N:
+// java -jar benchmarks/target/benchmarks.jar AttackBackend -jvmArgsAppend -XX:ActiveProcessorCount=4
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public abstract class AttackBackendBenchmark {
+
+    private static final int PROBES = 1024;
+
+    @Fork(value = 1, jvmArgsAppend = "-D" + MagicBitboard.ATTACKS_PROPERTY + "=magic")
+    public static class Magic extends AttackBackendBenchmark {
+    }
+
+    @Fork(value = 1, jvmArgsAppend = "-D" + MagicBitboard.ATTACKS_PROPERTY + "=lines")
+    public static class Lines extends AttackBackendBenchmark {
+    }
+
+    // Each thread probes its own random squares and middlegame like occupancies
+    @State(Scope.Thread)
+    public static class Probes {
+        final int[] squares = new int[PROBES];
+        final long[] occupancies = new long[PROBES];
+
+        @Setup
+        public void setup() {
+            Random random = new Random(Thread.currentThread().getId());
+            for (int i = 0; i < PROBES; i++) {
+                squares[i] = random.nextInt(64);
+                occupancies[i] = random.nextLong() & random.nextLong() & ~(1L << squares[i]);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Search {
+        @Param({"middlegame"})
+        public String position;
+
+        @Param({"3"})
+        public int depth;
+
+        Model model;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            model = Positions.get(position);
+            Minimax.getTable().clear();
+            Minimax.getOptions().parallelism = SearchOptions.Parallelism.LAZY_SMP;
+            Minimax.getOptions().verbose = false;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+    }
+
+    // Raw probes from one thread per core
+    @Benchmark
+    @Threads(Threads.MAX)
+    @OperationsPerInvocation(PROBES)
+    public long probes(Probes probes) {
+        long result = 0;
+        for (int i = 0; i < PROBES; i++) {
+            result ^= MagicBitboard.getQueenAttacks(probes.squares[i], probes.occupancies[i]);
+        }
+        return result;
+    }
+
+    // Lazy SMP runs a search thread per core, all generating moves at once
+    @Benchmark
+    public short[] lazySmpSearch(Search search, Nodes counters) {
+        SearchControl control = SearchControl.unlimited();
+        short[] move = Minimax.search(search.model, 1, search.depth, control);
+        counters.nodes += control.getNodes();
+        return move;
+    }
+}
@@ -0,0 +1,52 @@
+package Game.Benchmarks;
+
+import Game.AI.LineAttacks;
+import Game.AI.MagicBitboard;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttackBenchmark {
+
+    private static final int PROBES = 1024;
+
+    private final int[] squares = new int[PROBES];
+    private final long[] occupancies = new long[PROBES];
+
+    @Setup
+    public void setup() {
+        // Roughly a quarter of the board occupied, like a middlegame
+        Random random = new Random(42);
+        for (int i = 0; i < PROBES; i++) {
+            squares[i] = random.nextInt(64);
+            occupancies[i] = random.nextLong() & random.nextLong() & ~(1L << squares[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public long getQueenAttacks() {
+        long result = 0;
+        for (int i = 0; i < PROBES; i++) {
+            result ^= MagicBitboard.getQueenAttacks(squares[i], occupancies[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public long lineAttacks() {
+        long result = 0;
+        for (int i = 0; i < PROBES; i++) {
+            result ^= LineAttacks.getQueenAttacks(squares[i], occupancies[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,38 @@
+package Game.Benchmarks;
+
+import Game.AI.Minimax;
+import Game.AI.MobilityEvaluator;
+import Game.AI.Positions;
+import Game.AI.TerritoryEvaluator;
+import Game.Model;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+
+    @Param({"territory", "mobility"})
+    public String evaluator;
+
+    private Model model;
+
+    @Setup
+    public void setup() {
+        model = Positions.get(position);
+        Minimax.getOptions().evaluator = evaluator.equals("territory") ? new TerritoryEvaluator() : new MobilityEvaluator();
+    }
+
+    @Benchmark
+    public int evaluation() {
+        return Minimax.evaluation(model);
+    }
+}
@@ -0,0 +1,46 @@
+package Game.Benchmarks;
+
+import Game.AI.Positions;
+import Game.Constants;
+import Game.Model;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+
+    private Model model;
+    private final int[] turns = new int[Model.MAX_TURNS];
+
+    @Setup
+    public void setup() {
+        model = Positions.get(position);
+    }
+
+    // The array returning path the UI uses: queen moves, then walls after actually moving each queen
+    @Benchmark
+    public int generatePossibleMovesAndWalls() {
+        int count = 0;
+        for (short[] move : model.generatePossibleMoves(Constants.BLACK)) {
+            model.movePiece(move[0], move[1]);
+            count += model.generatePossibleWalls(move[1]).length;
+            model.movePiece(move[1], move[0]);
+        }
+        return count;
+    }
+
+    // The packed path the search uses
+    @Benchmark
+    public int generateTurns() {
+        return model.generateTurns(Constants.BLACK, turns);
+    }
+}
@@ -0,0 +1,56 @@
+package Game.Benchmarks;
+
+import Game.AI.Minimax;
+import Game.AI.Positions;
+import Game.AI.SearchControl;
+import Game.AI.SearchOptions;
+import Game.Model;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Fixed depth bestMove from a cold transposition table. Reports searches/sec and nodes/sec;
+// run with -prof gc for allocation numbers
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+
+    @Param({"2"})
+    public int depth;
+
+    @Param({"ROOT_SPLIT", "LAZY_SMP"})
+    public SearchOptions.Parallelism parallelism;
+
+    private Model model;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+    }
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        model = Positions.get(position);
+        Minimax.getTable().clear();
+        Minimax.getOptions().parallelism = parallelism;
+        Minimax.getOptions().verbose = false;
+    }
+
+    // Iterates up to depth with the selected parallelism. Compare nodes/sec under
+    // -jvmArgsAppend -XX:ActiveProcessorCount=N for different N to see how it scales with cores
+    @Benchmark
+    public short[] search(Nodes counters) {
+        SearchControl control = SearchControl.unlimited();
+        short[] move = Minimax.search(model, 1, depth, control);
+        counters.nodes += control.getNodes();
+        return move;
+    }
+}
@@ -0,0 +1,59 @@
+package Game.Benchmarks;
+
+import Game.AI.HeapTranspositionTable;
+import Game.AI.OffHeapTranspositionTable;
+import Game.AI.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Random probes and stores, large enough that nearly every access misses the cache like in a real search.
+// Each invocation takes the next OPERATIONS keys of a set far bigger than a last-level cache, so entries
+// written by earlier invocations have long been evicted when they are probed again
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranspositionTableBenchmark {
+
+    private static final int OPERATIONS = 4096;
+    // 4M keys at random slots, hundreds of MB of table lines between two visits to the same key
+    private static final int KEYS = 1 << 22;
+
+    @Param({"heap", "offheap"})
+    public String table;
+
+    @Param({"256"})
+    public int sizeMb;
+
+    private TranspositionTable transpositionTable;
+    private final long[] hashes = new long[KEYS];
+    private int next;
+
+    @Setup
+    public void setup() {
+        transpositionTable = table.equals("heap")
+                ? new HeapTranspositionTable(sizeMb)
+                : new OffHeapTranspositionTable(sizeMb, true);
+        Random random = new Random(7);
+        for (int i = 0; i < KEYS; i++) {
+            hashes[i] = random.nextLong();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long storeAndProbe() {
+        long result = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            int index = (next + i) & (KEYS - 1);
+            transpositionTable.store(hashes[index], i & 31, TranspositionTable.EXACT, i, i + 1);
+            result += transpositionTable.probe(hashes[(index * 31) & (KEYS - 1)]);
+        }
+        next = (next + OPERATIONS) & (KEYS - 1);
+        return result;
+    }
+}
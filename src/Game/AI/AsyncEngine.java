@@ -0,0 +1,91 @@
+package Game.AI;
+
+import Game.Model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// Runs an Engine on its own thread so the caller, usually the Swing event thread, never waits for a search.
+// One search runs at a time; a new one queues behind the current one. bestMove and ponder are meant to be
+// called from a single thread.
+public class AsyncEngine {
+
+    private final Engine engine;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "engine-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Control of the search started last, stopped by stopNow
+    private volatile SearchControl current;
+
+    // Search of the position after the predicted reply, running while the opponent thinks
+    private CompletableFuture<short[]> ponderSearch;
+    private SearchControl ponderControl;
+    // Hash of the pondered position, set by the engine thread once the reply is predicted
+    private volatile long ponderHash;
+
+    public AsyncEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    // Searches a snapshot of model, so the model can keep changing while the engine thinks.
+    // Cancelling the future stops the search as well. When the position is the one being pondered the
+    // ponder search becomes this search, otherwise it is dropped and its table entries are all that's left
+    public CompletableFuture<short[]> bestMove(Model model, long timeBudgetMillis, long nodeBudget) {
+        if (ponderSearch != null) {
+            CompletableFuture<short[]> ponder = ponderSearch;
+            SearchControl control = ponderControl;
+            ponderSearch = null;
+            ponderControl = null;
+
+            if (ponderHash == model.getHash()) {
+                control.startClock(timeBudgetMillis, nodeBudget);
+                return ponder;
+            }
+            control.stop();
+        }
+
+        Model snapshot = model.copy();
+        SearchControl control = SearchControl.withBudget(timeBudgetMillis, nodeBudget);
+        current = control;
+
+        return submit(() -> engine.bestMove(snapshot, control), control);
+    }
+
+    // Keeps the engine busy while the opponent is to move in model: predicts their reply and searches the
+    // position after it with no budget, until bestMove is called for the position the opponent leaves.
+    // Even when the prediction is wrong the transposition table is warm for the real reply
+    public void ponder(Model model) {
+        Model snapshot = model.copy();
+        SearchControl control = SearchControl.unlimited();
+        ponderHash = 0;
+        ponderControl = control;
+        current = control;
+
+        ponderSearch = submit(() -> {
+            int reply = engine.predictReply(snapshot, control);
+            if (reply == Move.NONE || control.isStopped()) return null;
+            snapshot.playTurn(reply);
+            ponderHash = snapshot.getHash();
+            return engine.bestMove(snapshot, control);
+        }, control);
+    }
+
+    private CompletableFuture<short[]> submit(Supplier<short[]> search, SearchControl control) {
+        CompletableFuture<short[]> future = CompletableFuture.supplyAsync(search, executor);
+        future.whenComplete((move, error) -> {
+            if (error != null) control.stop();
+        });
+        return future;
+    }
+
+    // Ends the running search early, its future completes with the best move found so far
+    public void stopNow() {
+        SearchControl control = current;
+        if (control != null) control.stop();
+    }
+}
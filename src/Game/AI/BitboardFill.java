@@ -0,0 +1,59 @@
+package Game.AI;
+
+// Set-wise move generation on whole bitboards. Queen moves use Kogge-Stone occluded fills,
+// which spread every source square along a ray in three shift steps instead of one square at a time.
+public class BitboardFill {
+
+    private static final long NOT_FILE_A = 0xFEFEFEFEFEFEFEFEL; // clears column 0
+    private static final long NOT_FILE_H = 0x7F7F7F7F7F7F7F7FL; // clears column 7
+
+    // All squares a queen on any of the sources could move to, through empty squares only
+    public static long queenTargets(long sources, long empty) {
+        return (upTargets(sources, empty, 8, -1L)
+                | upTargets(sources, empty, 1, NOT_FILE_A)
+                | upTargets(sources, empty, 9, NOT_FILE_A)
+                | upTargets(sources, empty, 7, NOT_FILE_H)
+                | downTargets(sources, empty, 8, -1L)
+                | downTargets(sources, empty, 1, NOT_FILE_H)
+                | downTargets(sources, empty, 9, NOT_FILE_H)
+                | downTargets(sources, empty, 7, NOT_FILE_A)) & empty;
+    }
+
+    // All squares one king step away from any of the sources
+    public static long kingTargets(long sources) {
+        long sideways = ((sources << 1) & NOT_FILE_A) | ((sources >>> 1) & NOT_FILE_H);
+        long row = sources | sideways;
+        return sideways | (row << 8) | (row >>> 8);
+    }
+
+    // Squares reachable from sources by any number of king steps through empty squares
+    public static long kingFill(long sources, long empty) {
+        long filled = sources;
+        while (true) {
+            long next = filled | (kingTargets(filled) & empty);
+            if (next == filled) return filled;
+            filled = next;
+        }
+    }
+
+    // Occluded fill towards higher square numbers. wrap clears squares that wrapped around a board edge
+    private static long upTargets(long generator, long empty, int shift, long wrap) {
+        long propagator = empty & wrap;
+        generator |= propagator & (generator << shift);
+        propagator &= propagator << shift;
+        generator |= propagator & (generator << (2 * shift));
+        propagator &= propagator << (2 * shift);
+        generator |= propagator & (generator << (4 * shift));
+        return (generator << shift) & wrap;
+    }
+
+    private static long downTargets(long generator, long empty, int shift, long wrap) {
+        long propagator = empty & wrap;
+        generator |= propagator & (generator >>> shift);
+        propagator &= propagator >>> shift;
+        generator |= propagator & (generator >>> (2 * shift));
+        propagator &= propagator >>> (2 * shift);
+        generator |= propagator & (generator >>> (4 * shift));
+        return (generator >>> shift) & wrap;
+    }
+}
@@ -0,0 +1,69 @@
+package Game.AI;
+
+import Game.Constants;
+import Game.Model;
+
+import java.nio.file.Paths;
+
+// Exact scores for positions where walls have separated the queens: once no square white queens stand on or
+// can reach touches one of black's, each side just fills its own regions and the game is decided by who runs out of
+// turns first. The side to move wins iff it has strictly more filling moves than the other side.
+public class Endgame {
+
+    // Returned when the queens still interact or a region is too big to solve
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+    // Solved wins score below WIN_SCORE, so a game actually over still counts as the surest result.
+    // Within them a larger margin of spare turns scores higher
+    private static final int SOLVED_WIN = Minimax.WIN_SCORE - 2 * Model.BOARD_SIZE * Model.BOARD_SIZE;
+    // Regions with more empty squares than this are left to the search
+    private static final int MAX_REGION_SQUARES = 28;
+
+    // Mapped once when the endgame is first needed, missing file or not
+    private static final FillingTablebase tablebase = FillingTablebase.open(Paths.get(Constants.TABLEBASE_FILE));
+    private static final ThreadLocal<FillingSolver> solver = ThreadLocal.withInitial(() -> new FillingSolver(tablebase));
+
+    // A won or lost game, decided by the end of the game or by counting filling moves. Searching deeper
+    // can't change a score like this at the root
+    public static boolean isDecided(int score) {
+        return Math.abs(score) > SOLVED_WIN;
+    }
+
+    // Exact score from black's point of view, like Minimax.evaluation, or UNKNOWN
+    public static int exactScore(Model model) {
+        long empty = ~model.getOccupancy();
+        long whiteArea = BitboardFill.kingFill(model.getWhiteQueens(), empty) & empty;
+        long blackArea = BitboardFill.kingFill(model.getBlackQueens(), empty) & empty;
+        // Disjoint areas aren't enough: a queen next to an enemy queen or the enemy's area frees its square
+        // for the other side when it moves. Separated means no square of one side touches the other side
+        long whiteSide = whiteArea | model.getWhiteQueens();
+        long blackSide = blackArea | model.getBlackQueens();
+        if ((BitboardFill.kingTargets(whiteSide) & blackSide) != 0) return UNKNOWN;
+
+        int white = fillingMoves(model.getWhiteQueens(), whiteArea);
+        if (white == FillingSolver.UNSOLVED) return UNKNOWN;
+        int black = fillingMoves(model.getBlackQueens(), blackArea);
+        if (black == FillingSolver.UNSOLVED) return UNKNOWN;
+
+        boolean blackToMove = model.getCurrentPlayer() == Constants.BLACK;
+        int toMove = blackToMove ? black : white;
+        int other = blackToMove ? white : black;
+        int margin = toMove - other;
+
+        if (margin > 0) {
+            int score = SOLVED_WIN + margin;
+            return blackToMove ? score : -score;
+        } else {
+            int score = SOLVED_WIN + (1 - margin);
+            return blackToMove ? -score : score;
+        }
+    }
+
+    // Most turns queens can make in area, or FillingSolver.UNSOLVED
+    public static int fillingMoves(long queens, long area) {
+        for (long queen = queens; queen != 0; queen &= queen - 1) {
+            long region = BitboardFill.kingFill(queen & -queen, area) & area;
+            if (Long.bitCount(region) > MAX_REGION_SQUARES) return FillingSolver.UNSOLVED;
+        }
+        return solver.get().solve(queens, area);
+    }
+}
@@ -0,0 +1,139 @@
+package Game.AI;
+
+import Game.Constants;
+import Game.Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Checks Endgame.exactScore against a full solve of the game tree on random positions with only a few empty
+// squares left, where solving to the end is cheap. Every position exactScore claims to know must have the
+// winner the solve finds. Exits with status 1 on any disagreement.
+// Usage: EndgameCheck [positions] [seed]
+public class EndgameCheck {
+
+    // Separated by the old check, which only compared the two areas, and scored for the wrong side: a queen
+    // moving away from an enemy queen lets it into the squares behind. Each has to come out UNKNOWN or right
+    private static final String[][] REGRESSIONS = {
+            {"########" + ".#..####" + "#W######" + "BB######" + "#.BW####" + "#.#W####" + "########" + "########", "W"},
+            {"########" + "########" + "#WW.####" + "B###.###" + "##.#####" + ".#.#B###" + "#B######" + ".#W#####", "B"},
+    };
+
+    private static final int MIN_WINDOW = 3;
+    private static final int MAX_WINDOW = 6;
+    // Keeps the full solve fast
+    private static final int MIN_EMPTY = 6;
+    private static final int MAX_EMPTY = 16;
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        Random random = new Random(seed);
+
+        int wrong = 0;
+        for (String[] regression : REGRESSIONS) {
+            int toMove = regression[1].equals("B") ? Constants.BLACK : Constants.WHITE;
+            if (!check(Model.fromString(regression[0], toMove))) wrong++;
+        }
+
+        int checked = 0;
+        for (int i = 0; i < positions; i++) {
+            // Half packed around each other, half spread over the board, which separates far more often
+            Model model = random.nextBoolean() ? packedPosition(random) : spreadPosition(random);
+            if (Endgame.exactScore(model) == Endgame.UNKNOWN) continue;
+            checked++;
+            if (!check(model)) wrong++;
+        }
+
+        System.out.println(checked + " of " + positions + " random positions scored exactly, " + wrong + " wrong");
+        if (wrong > 0) System.exit(1);
+    }
+
+    // False if exactScore knows a winner and the solve disagrees
+    private static boolean check(Model model) {
+        int exact = Endgame.exactScore(model);
+        if (exact == Endgame.UNKNOWN) return true;
+
+        int winner = solve(model, new HashMap<>()) ? model.getCurrentPlayer() : opponent(model.getCurrentPlayer());
+        int claimed = exact > 0 ? Constants.BLACK : Constants.WHITE;
+        if (winner == claimed) return true;
+
+        System.out.println("exactScore " + exact + " but " + (winner == Constants.BLACK ? "black" : "white")
+                + " wins, " + (model.getCurrentPlayer() == Constants.BLACK ? "black" : "white") + " to move:");
+        System.out.print(model);
+        return false;
+    }
+
+    // Three queens a side and up to MAX_EMPTY empty squares anywhere, walls everywhere else
+    private static Model spreadPosition(Random random) {
+        char[] squares = new char[Model.BOARD_SIZE * Model.BOARD_SIZE];
+        Arrays.fill(squares, '#');
+        place(squares, 'W', 3, random);
+        place(squares, 'B', 3, random);
+        place(squares, '.', MIN_EMPTY + random.nextInt(MAX_EMPTY - MIN_EMPTY + 1), random);
+        return Model.fromString(new String(squares), random.nextBoolean() ? Constants.WHITE : Constants.BLACK);
+    }
+
+    private static void place(char[] squares, char piece, int count, Random random) {
+        while (count > 0) {
+            int square = random.nextInt(squares.length);
+            if (squares[square] != '#') continue;
+            squares[square] = piece;
+            count--;
+        }
+    }
+
+    // Three queens a side and a few empty squares packed into a small window, walls everywhere else, so
+    // queens of both sides often stand next to each other and next to the other side's squares
+    private static Model packedPosition(Random random) {
+        char[] squares = new char[Model.BOARD_SIZE * Model.BOARD_SIZE];
+        Arrays.fill(squares, '#');
+        int width = MIN_WINDOW + random.nextInt(MAX_WINDOW - MIN_WINDOW + 1);
+        int height = MIN_WINDOW + random.nextInt(MAX_WINDOW - MIN_WINDOW + 1);
+        int row = random.nextInt(Model.BOARD_SIZE - height + 1);
+        int col = random.nextInt(Model.BOARD_SIZE - width + 1);
+
+        List<Integer> window = new ArrayList<>();
+        for (int r = row; r < row + height; r++) {
+            for (int c = col; c < col + width; c++) window.add(r * Model.BOARD_SIZE + c);
+        }
+        Collections.shuffle(window, random);
+
+        for (int i = 0; i < 3; i++) squares[window.get(i)] = 'W';
+        for (int i = 3; i < 6; i++) squares[window.get(i)] = 'B';
+        int empty = 0;
+        for (int i = 6; i < window.size() && empty < MAX_EMPTY; i++) {
+            if (random.nextBoolean()) {
+                squares[window.get(i)] = '.';
+                empty++;
+            }
+        }
+        return Model.fromString(new String(squares), random.nextBoolean() ? Constants.WHITE : Constants.BLACK);
+    }
+
+    // True if the side to move wins with best play. The side that can't move loses
+    private static boolean solve(Model model, Map<Long, Boolean> solved) {
+        Boolean known = solved.get(model.getHash());
+        if (known != null) return known;
+
+        int[] turns = new int[Model.MAX_TURNS];
+        int count = model.generateTurns(model.getCurrentPlayer(), turns);
+        boolean wins = false;
+        for (int i = 0; i < count && !wins; i++) {
+            model.playTurn(turns[i]);
+            wins = !solve(model, solved);
+            model.undoTurn(turns[i]);
+        }
+        solved.put(model.getHash(), wins);
+        return wins;
+    }
+
+    private static int opponent(int player) {
+        return player == Constants.WHITE ? Constants.BLACK : Constants.WHITE;
+    }
+}
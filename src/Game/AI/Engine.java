@@ -0,0 +1,24 @@
+package Game.AI;
+
+import Game.Model;
+
+// Something that picks black's next turn as {from, to, wall}. It has to return the best turn found so far
+// once control is stopped, and must not change model.
+public interface Engine {
+
+    short[] bestMove(Model model, SearchControl control);
+
+    // White's most likely reply in model, the position after this engine's last turn, for pondering.
+    // Gives up early once control is stopped. Move.NONE if white can't move
+    default int predictReply(Model model, SearchControl control) {
+        return Minimax.predictReply(model, control);
+    }
+
+    static Engine minimax() {
+        return (model, control) -> Minimax.search(model, 1, Minimax.MAX_DEPTH, control);
+    }
+
+    static Engine monteCarlo() {
+        return new MonteCarloSearch(MonteCarloSearch.DEFAULT_CAPACITY);
+    }
+}
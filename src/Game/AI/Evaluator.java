@@ -0,0 +1,8 @@
+package Game.AI;
+
+import Game.Model;
+
+// Static evaluation of a position that is not over. Positive scores favour black, the AI side.
+public interface Evaluator {
+    int evaluate(Model model);
+}
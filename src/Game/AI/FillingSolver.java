@@ -0,0 +1,122 @@
+package Game.AI;
+
+// Most turns a group of same coloured queens can still make in an area no enemy queen can reach.
+// Every turn fills exactly one empty square, so a region of n empty squares allows at most n turns; the
+// search stops at the first line of play that fills the region completely, which is the common case.
+// Results are memoised by (queens, empty squares) and kept between searches, since they don't depend on
+// anything else in the position. Not thread safe, each search thread uses its own solver.
+// Regions of a single queen that are small enough come straight from the FillingTablebase instead.
+class FillingSolver {
+
+    // States a single solve may expand before it gives up
+    private static final int BUDGET = 50_000;
+    private static final int TABLE_BITS = 16;
+    static final int UNSOLVED = -1;
+
+    private final long[] queenKeys = new long[1 << TABLE_BITS];
+    private final long[] emptyKeys = new long[1 << TABLE_BITS];
+    // Filling moves + 1, 0 for an empty slot. UNSOLVED marks areas the budget was too small for,
+    // so they aren't attempted again at every node
+    private final int[] values = new int[1 << TABLE_BITS];
+
+    // Single queen regions up to its size are read from the tablebase, null to always search
+    private final FillingTablebase tablebase;
+    private final int tablebaseSquares;
+
+    private int remaining;
+
+    FillingSolver(FillingTablebase tablebase) {
+        this.tablebase = tablebase;
+        this.tablebaseSquares = tablebase != null ? tablebase.getMaxSquares() : 0;
+    }
+
+    // Filling moves of queens in empty, or UNSOLVED. empty must hold only squares these queens can reach
+    int solve(long queens, long empty) {
+        int slot = slot(queens, empty);
+        if (values[slot] == UNSOLVED && queenKeys[slot] == queens && emptyKeys[slot] == empty) return UNSOLVED;
+
+        remaining = BUDGET;
+        int moves = fillingMoves(queens, empty);
+        if (remaining >= 0) return moves;
+
+        queenKeys[slot] = queens;
+        emptyKeys[slot] = empty;
+        values[slot] = UNSOLVED;
+        return UNSOLVED;
+    }
+
+    // Queens whose reachable squares don't touch are solved separately and added up
+    private int fillingMoves(long queens, long empty) {
+        int total = 0;
+        while (queens != 0) {
+            long area = BitboardFill.kingFill(queens & -queens, empty) & empty;
+            long group = queens & (BitboardFill.kingTargets(area) | (queens & -queens));
+            // Queens of the group may open up more squares than the first one reaches on its own
+            long grown = BitboardFill.kingFill(group, empty) & empty;
+            while (grown != area) {
+                area = grown;
+                group = queens & (BitboardFill.kingTargets(area) | group);
+                grown = BitboardFill.kingFill(group, empty) & empty;
+            }
+            queens &= ~group;
+
+            if (area == 0) continue;
+            int moves = FillingTablebase.NOT_FOUND;
+            if ((group & (group - 1)) == 0 && Long.bitCount(area) < tablebaseSquares) {
+                moves = tablebase.lookup(area | group, Long.numberOfTrailingZeros(group));
+            }
+            if (moves == FillingTablebase.NOT_FOUND) moves = solveArea(group, area);
+            if (moves == UNSOLVED) {
+                remaining = -1;
+                return 0;
+            }
+            total += moves;
+        }
+        return total;
+    }
+
+    private int solveArea(long queens, long empty) {
+        int slot = slot(queens, empty);
+        if (values[slot] != 0 && queenKeys[slot] == queens && emptyKeys[slot] == empty) {
+            return values[slot] == UNSOLVED ? UNSOLVED : values[slot] - 1;
+        }
+        if (--remaining < 0) return UNSOLVED;
+
+        int squares = Long.bitCount(empty);
+        int best = 0;
+        long blocked = ~empty;
+
+        search:
+        for (long from = queens; from != 0; from &= from - 1) {
+            int fromSquare = Long.numberOfTrailingZeros(from);
+            long targets = MagicBitboard.getQueenAttacks(fromSquare, blocked) & empty;
+
+            for (; targets != 0; targets &= targets - 1) {
+                int toSquare = Long.numberOfTrailingZeros(targets);
+                long movedQueens = queens ^ (1L << fromSquare) ^ (1L << toSquare);
+                long movedEmpty = (empty & ~(1L << toSquare)) | (1L << fromSquare);
+                long walls = MagicBitboard.getQueenAttacks(toSquare, ~movedEmpty) & movedEmpty;
+
+                for (; walls != 0; walls &= walls - 1) {
+                    int moves = 1 + fillingMoves(movedQueens, movedEmpty & ~(walls & -walls));
+                    if (remaining < 0) break search;
+                    if (moves > best) {
+                        best = moves;
+                        if (best == squares) break search;
+                    }
+                }
+            }
+        }
+
+        if (remaining < 0) return UNSOLVED;
+        queenKeys[slot] = queens;
+        emptyKeys[slot] = empty;
+        values[slot] = best + 1;
+        return best;
+    }
+
+    private static int slot(long queens, long empty) {
+        long mixed = (empty ^ (queens * 0x9E3779B97F4A7C15L)) * 0xBF58476D1CE4E5B9L;
+        return (int) (mixed >>> (64 - TABLE_BITS));
+    }
+}
@@ -0,0 +1,142 @@
+package Game.AI;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Filling moves of a single queen in every small enclosed region, precomputed by TablebaseGenerator and
+// memory-mapped. A region is looked up by its shape made canonical under translation, rotation and
+// reflection, so one entry covers every place and orientation it can appear in on the board.
+// File layout, big endian: header, an open addressing table of (canonical shape, value offset) slots,
+// then per shape one byte for each of its squares, holding the filling moves with the queen there.
+public class FillingTablebase {
+
+    static final int MAGIC = 0x42515442; // "BQTB"
+    static final int VERSION = 1;
+    // magic, version, max squares, slot count, value count
+    static final int HEADER_BYTES = 5 * Integer.BYTES;
+    static final int SLOT_BYTES = Long.BYTES + Integer.BYTES;
+    static final int SYMMETRIES = 8;
+
+    public static final int NOT_FOUND = -1;
+
+    private final ByteBuffer buffer;
+    private final int maxSquares;
+    private final int slotBits;
+    private final int valuesStart;
+
+    private FillingTablebase(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            throw new IllegalArgumentException("Not a filling tablebase");
+        maxSquares = buffer.getInt(8);
+        int slotCount = buffer.getInt(12);
+        slotBits = Integer.numberOfTrailingZeros(slotCount);
+        valuesStart = HEADER_BYTES + slotCount * SLOT_BYTES;
+    }
+
+    // Maps the file read only, or returns null when there is no usable file so the solver works alone
+    public static FillingTablebase open(Path path) {
+        if (!Files.isRegularFile(path)) return null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new FillingTablebase(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Ignoring tablebase " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Largest region, queen square included, the file has entries for
+    public int getMaxSquares() {
+        return maxSquares;
+    }
+
+    // Filling moves of a queen on queenSquare in region, which holds the queen square and the empty squares
+    // king-connected to it. NOT_FOUND for regions larger than the table
+    public int lookup(long region, int queenSquare) {
+        if (Long.bitCount(region) > maxSquares) return NOT_FOUND;
+
+        int symmetry = canonicalSymmetry(region);
+        long shape = transform(region, symmetry, region);
+        long queen = transform(1L << queenSquare, symmetry, region);
+
+        int slot = slot(shape, slotBits);
+        while (true) {
+            int position = HEADER_BYTES + slot * SLOT_BYTES;
+            long key = buffer.getLong(position);
+            if (key == 0) return NOT_FOUND;
+            if (key == shape) {
+                int rank = Long.bitCount(shape & (queen - 1));
+                return buffer.get(valuesStart + buffer.getInt(position + Long.BYTES) + rank);
+            }
+            slot = (slot + 1) & ((1 << slotBits) - 1);
+        }
+    }
+
+    static int slot(long shape, int slotBits) {
+        return (int) ((shape * 0x9E3779B97F4A7C15L) >>> (64 - slotBits));
+    }
+
+    // The symmetry that gives the smallest shape, the same for every orientation of a region
+    static int canonicalSymmetry(long region) {
+        int best = 0;
+        long bestShape = transform(region, 0, region);
+        for (int symmetry = 1; symmetry < SYMMETRIES; symmetry++) {
+            long shape = transform(region, symmetry, region);
+            if (Long.compareUnsigned(shape, bestShape) < 0) {
+                bestShape = shape;
+                best = symmetry;
+            }
+        }
+        return best;
+    }
+
+    static long canonical(long region) {
+        return transform(region, canonicalSymmetry(region), region);
+    }
+
+    // Applies a symmetry of the board to squares, then shifts them so that frame, transformed the same
+    // way, touches row 0 and column 0. Bit 2 transposes, bit 0 mirrors rows and bit 1 mirrors columns
+    static long transform(long squares, int symmetry, long frame) {
+        long oriented = orient(frame, symmetry);
+        int minRow = Long.numberOfTrailingZeros(oriented) >>> 3;
+        int minCol = Long.numberOfTrailingZeros(foldRows(oriented));
+        // Every square is at or right of minCol, so one shift moves them all without wrapping
+        return orient(squares, symmetry) >>> (minRow * 8 + minCol);
+    }
+
+    private static long orient(long squares, int symmetry) {
+        if ((symmetry & 4) != 0) squares = transpose(squares);
+        if ((symmetry & 1) != 0) squares = Long.reverseBytes(squares);
+        if ((symmetry & 2) != 0) squares = mirrorColumns(squares);
+        return squares;
+    }
+
+    // (row, col) to (col, row), by swapping ever smaller blocks across the diagonal
+    private static long transpose(long squares) {
+        long swap = 0x0F0F0F0F00000000L & (squares ^ (squares << 28));
+        squares ^= swap ^ (swap >>> 28);
+        swap = 0x3333000033330000L & (squares ^ (squares << 14));
+        squares ^= swap ^ (swap >>> 14);
+        swap = 0x5500550055005500L & (squares ^ (squares << 7));
+        return squares ^ swap ^ (swap >>> 7);
+    }
+
+    // Reverses the bits of every row
+    private static long mirrorColumns(long squares) {
+        squares = ((squares >>> 1) & 0x5555555555555555L) | ((squares & 0x5555555555555555L) << 1);
+        squares = ((squares >>> 2) & 0x3333333333333333L) | ((squares & 0x3333333333333333L) << 2);
+        return ((squares >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((squares & 0x0F0F0F0F0F0F0F0FL) << 4);
+    }
+
+    // Columns used by any row, in the low byte
+    private static long foldRows(long squares) {
+        squares |= squares >>> 32;
+        squares |= squares >>> 16;
+        return (squares | (squares >>> 8)) & 0xFF;
+    }
+}
@@ -0,0 +1,74 @@
+package Game.AI;
+
+import java.util.Arrays;
+
+// Transposition table in two long[] arrays on the Java heap, one entry per slot
+public class HeapTranspositionTable implements TranspositionTable {
+
+    private static final int ENTRY_BYTES = 16;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+    private final int sizeMb;
+    private int generation;
+
+    public HeapTranspositionTable(int sizeMb) {
+        long wanted = Math.max(1, (long) sizeMb * 1024 * 1024 / ENTRY_BYTES);
+        int size = Integer.highestOneBit((int) Math.min(wanted, 1 << 30));
+        this.keys = new long[size];
+        this.entries = new long[size];
+        this.mask = size - 1;
+        this.sizeMb = sizeMb;
+    }
+
+    @Override
+    public int getSizeMb() {
+        return sizeMb;
+    }
+
+    @Override
+    public long capacity() {
+        return keys.length;
+    }
+
+    @Override
+    public void newSearch() {
+        generation = (generation + 1) & 15;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(entries, 0L);
+    }
+
+    @Override
+    public long probe(long hash) {
+        int index = (int) hash & mask;
+        long entry = entries[index];
+        if (entry != 0 && (keys[index] ^ entry) == hash) return entry;
+        return 0L;
+    }
+
+    @Override
+    public void store(long hash, int depth, int bound, int score, int move) {
+        int index = (int) hash & mask;
+        long old = entries[index];
+        boolean samePosition = old != 0 && (keys[index] ^ old) == hash;
+
+        // Depth preferred replacement; entries from a previous search are always overwritten
+        if (old != 0 && !samePosition
+                && TranspositionTable.generation(old) == generation && TranspositionTable.depth(old) > depth) {
+            return;
+        }
+        // Keep the known best move when re-storing a position without one
+        if (move == Move.NONE && samePosition) {
+            move = TranspositionTable.move(old);
+        }
+
+        long entry = TranspositionTable.pack(depth, bound, score, move, generation);
+        entries[index] = entry;
+        keys[index] = hash ^ entry;
+    }
+}
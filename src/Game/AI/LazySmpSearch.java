@@ -0,0 +1,106 @@
+package Game.AI;
+
+import Game.Constants;
+import Game.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Lazy SMP: every thread runs iterative deepening on its own copy of the root and they cooperate only
+// through the shared transposition table. Odd helpers search one ply deeper and all helpers jitter their
+// move order, so they fill the table with different subtrees for each other.
+class LazySmpSearch {
+
+    private final Model root;
+    private final int fromDepth;
+    private final int maxDepth;
+    private final SearchControl control;
+
+    // Deepest completed iteration over all threads, guarded by this
+    private int bestMove = Move.NONE;
+    private int completedDepth;
+
+    LazySmpSearch(Model root, int fromDepth, int maxDepth, SearchControl control) {
+        this.root = root.copy();
+        this.fromDepth = fromDepth;
+        this.maxDepth = maxDepth;
+        this.control = control;
+    }
+
+    // The calling thread works as the main thread, threads - 1 helpers run on the pool
+    short[] search(ExecutorService pool, int threads) {
+        List<Future<?>> helpers = new ArrayList<>();
+        for (int id = 1; id < threads; id++) {
+            int helperId = id;
+            helpers.add(pool.submit(() -> iterate(helperId)));
+        }
+
+        int mainBestMove = iterate(0);
+
+        // The main thread decides when the search is over
+        control.stop();
+        for (Future<?> helper : helpers) {
+            try {
+                helper.get();
+            } catch (InterruptedException | ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+
+        synchronized (this) {
+            if (bestMove == Move.NONE) bestMove = mainBestMove;
+            if (bestMove == Move.NONE) {
+                int[] turns = new int[Model.MAX_TURNS];
+                if (root.generateTurns(Constants.BLACK, turns) > 0) bestMove = turns[0];
+            }
+            return Move.toArray(bestMove);
+        }
+    }
+
+    synchronized int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    // Returns the best root turn of the last iteration, finished or not
+    private int iterate(int id) {
+        Model model = root.copy();
+        SearchContext context = SearchContext.current();
+        context.reset(control);
+        if (id > 0) context.setOrderJitter(0x9E3779B97F4A7C15L * id);
+
+        int previousScore = 0;
+        // Odd helpers run a ply ahead, except at the depth cap where they take other root moves first instead
+        int depth = fromDepth + (id % 2);
+        if (depth > maxDepth) {
+            depth = maxDepth;
+            context.rootHashMoveLast = true;
+        }
+        for (; depth <= maxDepth; depth++) {
+            int iterationDepth = depth;
+            MoveResult result = Minimax.aspirationSearch((alpha, beta) -> {
+                int score = Minimax.minimaxScore(context, model, iterationDepth, 0, alpha, beta, true);
+                return new MoveResult(score > alpha ? context.rootBestMove : Move.NONE, score, alpha);
+            }, previousScore, depth, control);
+            if (control.isStopped()) break;
+
+            previousScore = result.score;
+            record(depth, result.move, id == 0);
+
+            // The next iteration takes several times longer, don't start what can't finish
+            if (id == 0 && (control.isPastFraction(0.5) || Endgame.isDecided(result.score))) break;
+        }
+        context.flush();
+        return context.rootBestMove;
+    }
+
+    private synchronized void record(int depth, int move, boolean mainThread) {
+        if (move == Move.NONE) return;
+        if (depth > completedDepth || (depth == completedDepth && mainThread)) {
+            completedDepth = depth;
+            bestMove = move;
+        }
+    }
+}
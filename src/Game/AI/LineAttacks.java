@@ -0,0 +1,60 @@
+package Game.AI;
+
+// Sliding attacks by obstruction difference: on each of the four lines through a square, the nearest
+// blocker below the square is found with a leading zero count and the one above with a subtraction, and
+// everything between them is attacked. The only tables are the line halves, 4 KB that stay in L1 cache,
+// where MagicBitboard's 2 MB of tables miss on almost every probe once several cores share the cache.
+// Same results as MagicBitboard; chosen over it with -Dqueens.attacks=lines.
+public class LineAttacks {
+
+    private static final int LINES = 4;
+    // Row and column step of the file, rank, diagonal and anti-diagonal
+    private static final int[] ROW_STEPS = {1, 0, 1, 1};
+    private static final int[] COL_STEPS = {0, 1, 1, -1};
+
+    // Squares of each line through each square, below and above it, at square * 4 + line
+    private static final long[] lower = new long[64 * LINES];
+    private static final long[] upper = new long[64 * LINES];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            for (int line = 0; line < LINES; line++) {
+                int index = square * LINES + line;
+                for (int sign = -1; sign <= 1; sign += 2) {
+                    int row = square / 8 + sign * ROW_STEPS[line];
+                    int col = square % 8 + sign * COL_STEPS[line];
+                    for (; row >= 0 && row < 8 && col >= 0 && col < 8; row += sign * ROW_STEPS[line], col += sign * COL_STEPS[line]) {
+                        int target = row * 8 + col;
+                        if (target < square) lower[index] |= 1L << target;
+                        else upper[index] |= 1L << target;
+                    }
+                }
+            }
+        }
+    }
+
+    public static long getQueenAttacks(int square, long occupied) {
+        int index = square * LINES;
+        return (lineAttacks(index, occupied) | lineAttacks(index + 1, occupied)
+                | lineAttacks(index + 2, occupied) | lineAttacks(index + 3, occupied)) & ~occupied;
+    }
+
+    public static long getRookAttacks(int square, long occupied) {
+        int index = square * LINES;
+        return (lineAttacks(index, occupied) | lineAttacks(index + 1, occupied)) & ~occupied;
+    }
+
+    public static long getBishopAttacks(int square, long occupied) {
+        int index = square * LINES;
+        return (lineAttacks(index + 2, occupied) | lineAttacks(index + 3, occupied)) & ~occupied;
+    }
+
+    // Squares of the line up to and including the nearest blocker on either side
+    private static long lineAttacks(int index, long occupied) {
+        long below = lower[index] & occupied;
+        long above = upper[index] & occupied;
+        // Highest blocker below, or bit 0 when there is none so the subtraction reaches the line's end
+        long nearestBelow = 0x8000000000000000L >>> Long.numberOfLeadingZeros(below | 1);
+        return (lower[index] | upper[index]) & (above ^ (above - nearestBelow));
+    }
+}
@@ -1,9 +1,27 @@
 package Game.AI;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
 import java.util.Arrays;
 
 public class MagicBitboard {
 
+    // Attack backend, read once at startup: -Dqueens.attacks=lines answers every call from LineAttacks and
+    // never builds the tables below. A static final flag, so the JIT drops the branch not taken
+    public static final String ATTACKS_PROPERTY = "queens.attacks";
+    public static final boolean LINE_ATTACKS = "lines".equals(System.getProperty(ATTACKS_PROPERTY));
+
+    // Tables written at build time by MagicTableGenerator and read from the classpath at startup, which is
+    // much faster than enumerating every occupancy. Without the resource the tables are computed as before.
+    // Layout, big endian: magic, fingerprint of the masks and magics, bishop tables, rook tables
+    static final String TABLES_RESOURCE = "magic.tables";
+    // -Dqueens.magicTables=off computes the tables even when the resource is there, see MagicTableStartup
+    public static final String TABLES_PROPERTY = "queens.magicTables";
+    private static final int TABLES_MAGIC = 0x42514D54; // "BQMT"
+
     private static final long One = 1L;
 
     private static final long Ff = 0xFFL;
@@ -61,11 +79,65 @@ public class MagicBitboard {
     };
 
     static {
+        if (!LINE_ATTACKS) {
+            allocateTables();
+            boolean load = !"off".equals(System.getProperty(TABLES_PROPERTY));
+            if (!load || !loadTables()) computeTables();
+        }
+    }
+
+    private static void allocateTables() {
         for (int i = 0; i < MagicBishopDb.length; i++)
             MagicBishopDb[i] = new long[MagicBishopDbLength];
 
         for (int i = 0; i < MagicRookDb.length; ++i)
             MagicRookDb[i] = new long[MagicRookDbLength];
+    }
+
+    // Bulk reads the generated tables, false when the resource is missing or was made for other magics
+    private static boolean loadTables() {
+        try (InputStream in = MagicBitboard.class.getResourceAsStream(TABLES_RESOURCE)) {
+            if (in == null) return false;
+            ByteBuffer buffer = ByteBuffer.wrap(in.readAllBytes());
+            if (buffer.remaining() != tablesBytes() || buffer.getInt() != TABLES_MAGIC
+                    || buffer.getLong() != fingerprint()) return false;
+
+            LongBuffer entries = buffer.asLongBuffer();
+            for (long[] table : MagicBishopDb) entries.get(table);
+            for (long[] table : MagicRookDb) entries.get(table);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Used by MagicTableGenerator. Writes the tables already in memory, loaded ones included since they
+    // passed the fingerprint check; only the line backend has none yet
+    static void writeTables(DataOutputStream out) throws IOException {
+        if (LINE_ATTACKS) {
+            allocateTables();
+            computeTables();
+        }
+        out.writeInt(TABLES_MAGIC);
+        out.writeLong(fingerprint());
+        for (long[] table : MagicBishopDb) for (long entry : table) out.writeLong(entry);
+        for (long[] table : MagicRookDb) for (long entry : table) out.writeLong(entry);
+    }
+
+    private static int tablesBytes() {
+        return Integer.BYTES + Long.BYTES + 64 * (MagicBishopDbLength + MagicRookDbLength) * Long.BYTES;
+    }
+
+    // Changes whenever a mask or magic does, so tables made for other magics are never used
+    private static long fingerprint() {
+        long hash = 0;
+        for (long[] constants : new long[][]{MagicmovesBMagics, MagicmovesBMask, MagicmovesRMagics, MagicmovesRMask}) {
+            for (long constant : constants) hash = (hash ^ constant) * 0x9E3779B97F4A7C15L;
+        }
+        return hash;
+    }
+
+    private static void computeTables() {
 
         final int[] initMagicMovesDb = {
                 63, 0, 58, 1, 59, 47, 53, 2,
@@ -116,17 +188,20 @@ public class MagicBitboard {
     }
 
     public static long getBishopAttacks(final int square, final long occupied) {
+        if (LINE_ATTACKS) return LineAttacks.getBishopAttacks(square, occupied);
         long attacks =  MagicBishopDb[square][(int) (((occupied & MagicmovesBMask[square]) * MagicmovesBMagics[square]) >>> 55)];
         return attacks & ~occupied & ~(1L << square); // Exclude occupied squares
 
     }
 
     public static long getRookAttacks(final int square, final long occupied) {
+        if (LINE_ATTACKS) return LineAttacks.getRookAttacks(square, occupied);
         long attacks =  MagicRookDb[square][(int) (((occupied & MagicmovesRMask[square]) * MagicmovesRMagics[square]) >>> 52)];
         return attacks & ~occupied & ~(1L << square); // Exclude occupied squares
     }
 
     public static long getQueenAttacks(final int square, final long occupied) {
+        if (LINE_ATTACKS) return LineAttacks.getQueenAttacks(square, occupied);
         return getBishopAttacks(square, occupied) | getRookAttacks(square, occupied);
     }
 
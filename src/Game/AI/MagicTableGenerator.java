@@ -0,0 +1,27 @@
+package Game.AI;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Writes MagicBitboard's attack tables as a classpath resource so the game doesn't compute them at startup.
+// The build runs it with -P magic-tables; without the file MagicBitboard computes the tables itself.
+// Usage: MagicTableGenerator [classes directory]
+public class MagicTableGenerator {
+
+    public static void main(String[] args) throws IOException {
+        Path classes = Paths.get(args.length > 0 ? args[0] : "target/classes");
+        Path path = classes.resolve("Game/AI").resolve(MagicBitboard.TABLES_RESOURCE);
+        Files.createDirectories(path.getParent());
+
+        long startTime = System.nanoTime();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            MagicBitboard.writeTables(out);
+        }
+        System.out.println(String.format("Attack tables written to %s in %.1f s",
+                path, (System.nanoTime() - startTime) / 1e9));
+    }
+}
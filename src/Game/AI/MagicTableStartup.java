@@ -0,0 +1,78 @@
+package Game.AI;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Cold start of MagicBitboard with the generated tables against computing them. Every run is a fresh JVM
+// timing its first attack lookup, which is what loads the class; loaded and computed runs alternate.
+// The tables are written to a temporary directory first, so it works the same with or without -P magic-tables.
+// Usage: MagicTableStartup [runs per side, 10]
+public class MagicTableStartup {
+
+    private static final String CHILD = "--child";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals(CHILD)) {
+            long startTime = System.nanoTime();
+            MagicBitboard.getQueenAttacks(27, 0);
+            System.out.println(System.nanoTime() - startTime);
+            return;
+        }
+
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Path directory = Files.createTempDirectory("magic-tables");
+        Path path = directory.resolve("Game/AI").resolve(MagicBitboard.TABLES_RESOURCE);
+        Files.createDirectories(path.getParent());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            MagicBitboard.writeTables(out);
+        }
+
+        String classPath = directory + File.pathSeparator + System.getProperty("java.class.path");
+        long[] loaded = new long[runs];
+        long[] computed = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            loaded[i] = runChild(classPath, "on");
+            computed[i] = runChild(classPath, "off");
+        }
+
+        System.out.println(String.format("Loaded:   median %.1f ms, min %.1f ms", median(loaded), min(loaded)));
+        System.out.println(String.format("Computed: median %.1f ms, min %.1f ms", median(computed), min(computed)));
+
+        Files.delete(path);
+        Files.delete(path.getParent());
+        Files.delete(path.getParent().getParent());
+        Files.delete(directory);
+    }
+
+    private static long runChild(String classPath, String tables) throws IOException, InterruptedException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>(List.of(java, "-cp", classPath,
+                "-D" + MagicBitboard.TABLES_PROPERTY + "=" + tables, MagicTableStartup.class.getName(), CHILD));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output;
+        try (InputStream in = process.getInputStream()) {
+            output = new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+        }
+        if (process.waitFor() != 0) throw new IllegalStateException("Child JVM failed: " + output);
+        return Long.parseLong(output);
+    }
+
+    private static double median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2] / 1e6;
+    }
+
+    private static double min(long[] nanos) {
+        return Arrays.stream(nanos).min().orElse(0) / 1e6;
+    }
+}
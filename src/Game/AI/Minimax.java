@@ -2,7 +2,6 @@ package Game.AI;
 
 import Game.Constants;
 import Game.Model;
-import Game.Observer;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -11,25 +10,110 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Minimax {
 
-    static int counter = 0;
+    public static final int MAX_DEPTH = 64;
+
+    // Score of a won game for black, -WIN_SCORE for white
+    public static final int WIN_SCORE = 1_000_000;
+    // Beyond any score, with room left for null windows around it
+    public static final int INFINITY = WIN_SCORE + 1;
+    // Aspiration windows are only used once the previous iteration's score is meaningful
+    private static final int ASPIRATION_MIN_DEPTH = 3;
+    // Reductions need at least this much depth left so the reduced search isn't just a leaf evaluation
+    private static final int LMR_MIN_DEPTH = 3;
+    // Queen moves are ordered by a static evaluation after the move from this depth up
+    private static final int QUEEN_EVAL_MIN_DEPTH = 2;
+    // Order score of the second killer, the first is one above and the hash move is above both.
+    // Static scores stay below it, wins are scored WIN_SCORE
+    private static final int KILLER_SCORE = Integer.MAX_VALUE - 2;
+    // The (from, to) bits of a packed turn
+    private static final int QUEEN_MOVE_MASK = 0xFFF;
+
+    // Long lived workers shared by every search. Daemon threads, so they never keep the game from exiting
+    private static final ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+        Thread thread = new Thread(runnable, "engine-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final SearchOptions options = new SearchOptions();
+    private static TranspositionTable table;
+
+    // Also runs MonteCarloSearch's workers, only one search runs at a time
+    static ExecutorService getPool() {
+        return pool;
+    }
+
+    public static SearchOptions getOptions() {
+        return options;
+    }
+
+    public static TranspositionTable getTable() {
+        if (table == null || table.getSizeMb() != options.hashSizeMb
+                || (table instanceof OffHeapTranspositionTable) != options.offHeapHashTable) {
+            table = null; // let the old table go before allocating the new one
+            table = options.offHeapHashTable
+                    ? new OffHeapTranspositionTable(options.hashSizeMb, options.prefaultHashTable)
+                    : new HeapTranspositionTable(options.hashSizeMb);
+        }
+        return table;
+    }
+
     public static short[] minimax(Model model, int depth) {
+        return search(model, depth, depth, SearchControl.unlimited());
+    }
 
-        List<Observer> observers = new ArrayList<>(model.getObservers());
-        model.unregisterAllObservers();
+    // Searches deeper and deeper until the time or node budget (0 for none) runs out
+    // and returns the best move of the last iteration that completed
+    public static short[] iterativeDeepening(Model model, long timeBudgetMillis, long nodeBudget) {
+        return search(model, 1, MAX_DEPTH, SearchControl.withBudget(timeBudgetMillis, nodeBudget));
+    }
 
-        long startTime = System.currentTimeMillis();
+    // Searches copies of model, so observers of model never hear about the search
+    public static short[] search(Model model, int fromDepth, int maxDepth, SearchControl control) {
+        short[] value = null;
+        int completedDepth = 0;
+        // Once per search, pondering included: entries from earlier iterations of this one stay current
+        getTable().newSearch();
+
+        if (options.parallelism == SearchOptions.Parallelism.LAZY_SMP) {
+            LazySmpSearch lazySmp = new LazySmpSearch(model, fromDepth, maxDepth, control);
+            value = lazySmp.search(pool, Runtime.getRuntime().availableProcessors());
+            completedDepth = lazySmp.getCompletedDepth();
+        } else {
+            int previousScore = 0;
+            for (int depth = fromDepth; depth <= maxDepth; depth++) {
+                int iterationDepth = depth;
+                MoveResult result = aspirationSearch(
+                        (alpha, beta) -> rootSplit(model, iterationDepth, control, alpha, beta),
+                        previousScore, depth, control);
+
+                // Even depth 1 is cut short by stopNow or the node budget. With no earlier iteration to fall
+                // back on, its best turn so far is kept, or any legal turn when no task finished
+                if (control.isStopped()) {
+                    if (value == null) value = Move.toArray(result.move != Move.NONE ? result.move : firstTurn(model));
+                    break;
+                }
 
-        counter = 0;
-        short[] value = bestMove(model, depth);
+                value = Move.toArray(result.move != Move.NONE ? result.move : firstTurn(model));
+                previousScore = result.score;
+                completedDepth = depth;
 
-        model.addAllObservers(observers);
+                // The next iteration takes several times longer, don't start what can't finish
+                if (control.isPastFraction(0.5) || Endgame.isDecided(result.score)) break;
+            }
+        }
+
+        if (!options.verbose) return value;
 
         System.out.println();
-        System.out.println("Time took = "+ formatSecondsToMinutesSeconds( (float) (System.currentTimeMillis() - startTime) / 1000 ));
-        System.out.println("Options tried = " +counter);
+        System.out.println("Time took = "+ formatSecondsToMinutesSeconds( (float) control.elapsedMillis() / 1000 ));
+        System.out.println("Options tried = " + control.getNodes());
+        System.out.println("Cutoffs on first move = " + String.format("%.1f%%", control.getFirstMoveCutoffRate() * 100));
+        System.out.println("Depth = " + completedDepth);
         System.out.println("Chosen = " + Arrays.toString(value));
 
 
@@ -46,175 +130,405 @@ public class Minimax {
 
 
     public static short[] bestMove(Model model, int depth) {
-        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        return bestMove(model, depth, SearchControl.unlimited());
+    }
 
-        List<Future<MoveResult>> futures = new ArrayList<>();
+    public static short[] bestMove(Model model, int depth, SearchControl control) {
+        MoveResult result = rootSplit(model, depth, control, -INFINITY, INFINITY);
 
-        short[][] moves = model.generatePossibleMoves(Constants.BLACK);
+        // Only when the search was stopped before any task finished
+        return Move.toArray(result.move != Move.NONE ? result.move : firstTurn(model));
+    }
+
+    interface RootSearch {
+        MoveResult search(int alpha, int beta);
+    }
+
+    // Searches with a narrow window around the previous iteration's score and widens it on the
+    // side that failed until the score falls inside. Narrow windows prune much more when they hold
+    static MoveResult aspirationSearch(RootSearch rootSearch, int previousScore, int depth, SearchControl control) {
+        int window = options.aspirationWindow;
+        if (window <= 0 || depth < ASPIRATION_MIN_DEPTH || Math.abs(previousScore) >= WIN_SCORE) {
+            return rootSearch.search(-INFINITY, INFINITY);
+        }
 
-        for (short[] move : moves) {
-            model.movePiece(move[0], move[1]);
-            for (short wallPlacement : model.generatePossibleWalls(move[1])) {
-                MoveEvaluationTask task = new MoveEvaluationTask(model, move, wallPlacement, depth);
-                futures.add(executor.submit(task));
+        int alpha = Math.max(previousScore - window, -INFINITY);
+        int beta = Math.min(previousScore + window, INFINITY);
+
+        while (true) {
+            MoveResult result = rootSearch.search(alpha, beta);
+            if (control.isStopped()) return result;
+
+            if (result.score <= alpha && alpha > -INFINITY) {
+                window *= 4;
+                alpha = Math.max(alpha - window, -INFINITY);
+            } else if (result.score >= beta && beta < INFINITY) {
+                window *= 4;
+                beta = Math.min(beta + window, INFINITY);
+            } else {
+                return result;
             }
-            model.movePiece(move[1], move[0]);
         }
+    }
+
+    // One task per root queen move on the engine pool, each searching its walls within (alpha, beta).
+    // Returns the best turn with its score, or Move.NONE with alpha when every turn failed low
+    static MoveResult rootSplit(Model model, int depth, SearchControl control, int alpha, int beta) {
+        List<Future<MoveResult>> futures = new ArrayList<>();
+
+        Model root = model.copy();
+        int[] queenMoves = new int[3 * 27];
+        int[] orderScores = new int[3 * 27];
+        int count = root.generateQueenMoves(Constants.BLACK, queenMoves);
+
+        // The best move of the previous iteration first, then the rest by static evaluation,
+        // since the pool starts tasks in submission order
+        int hashMove = TranspositionTable.move(getTable().probe(root.getHash())) & QUEEN_MOVE_MASK;
+        scoreQueenMoves(new SearchContext(control), root, depth, 0, hashMove, queenMoves, orderScores, count, true);
 
-        int bestScore = Integer.MIN_VALUE;
-        short[] bestMovePos = null;
-        short bestWallPlacement = -1;
+        // Best root score proven so far. Every task searches with it as alpha, so later root moves
+        // only have to show they are worse instead of finding out by how much
+        AtomicInteger rootAlpha = new AtomicInteger(alpha);
+
+        for (int i = 0; i < count; i++) {
+            int queenMove = pickNextTurn(queenMoves, orderScores, i, count);
+            MoveEvaluationTask task = new MoveEvaluationTask(root, queenMove, i == 0, depth, beta, control, rootAlpha);
+            futures.add(pool.submit(task));
+        }
+
+        int bestScore = alpha;
+        int bestTurn = Move.NONE;
 
         for (Future<MoveResult> future : futures) {
             try {
                 MoveResult result = future.get();
-                if (result.score > bestScore) {
+                // A score at or below the alpha it was searched with is only an upper bound
+                if (!result.isExact()) continue;
+                if (bestTurn == Move.NONE || result.score > bestScore) {
                     bestScore = result.score;
-                    bestMovePos = result.move;
-                    bestWallPlacement = result.wallPlacement;
+                    bestTurn = result.move;
                 }
             } catch (InterruptedException | ExecutionException e) {
                 e.printStackTrace();
             }
         }
 
-        executor.shutdown();
-
-        return new short[]{bestMovePos[0], bestMovePos[1], bestWallPlacement};
-    }
-
-//    public static short[] bestMove(Model model, int depth) {
-//        int bestScore = Integer.MIN_VALUE;
-//        short[] bestMovePos = null;
-//        short bestWallPlacement = -1;
-//
-//        short[][] moves = model.generatePossibleMoves(Constants.BLACK);
-//
-//        for (short[] move : moves) {
-//            model.movePiece(move[0], move[1]);
-//            for(short wallPlacement : model.generatePossibleWalls(move[1])){
-//                model.placeWall(wallPlacement);
-//
-//                int score = minimaxScore(model, depth - 1, Integer.MIN_VALUE, Integer.MAX_VALUE, false);
-//
-//                if (score > bestScore) {
-//                    bestScore = score;
-//                    bestMovePos = move;
-//                    bestWallPlacement = wallPlacement;
-//                }
-//
-//                model.unPlaceWall(wallPlacement);
-//            }
-//
-//            model.movePiece(move[1], move[0]);
-//
-//
-//        }
-//
-//        return new short[]{bestMovePos[0], bestMovePos[1], bestWallPlacement};
-//    }
+        // The tasks only store the positions below the root, so this is where the next iteration's
+        // hash move comes from
+        if (options.useHashTable && bestTurn != Move.NONE && !control.isStopped()) {
+            getTable().store(root.getHash(), depth, bound(bestScore, alpha, beta), bestScore, bestTurn);
+        }
+        return new MoveResult(bestTurn, bestScore, alpha);
+    }
 
-    public static int minimaxScore(Model model, int depth, int alpha, int beta, boolean isMaximizing) {
-        if (depth == 0 || model.isGameOver()) {
-            return evaluation(model);
+    // White's most likely reply: the best move the table has for the position, which after one of our
+    // searches is usually the refutation it found. Falls back to a shallow search, which stops with control.
+    // Move.NONE if white can't move
+    public static int predictReply(Model model, SearchControl control) {
+        int[] turns = new int[Model.MAX_TURNS];
+        int count = model.generateTurns(Constants.WHITE, turns);
+
+        int move = TranspositionTable.move(getTable().probe(model.getHash()));
+        if (!contains(turns, count, move)) {
+            SearchContext context = new SearchContext(control);
+            minimaxScore(context, model.copy(), 2, 0, -INFINITY, INFINITY, false);
+            context.flush();
+            move = TranspositionTable.move(getTable().probe(model.getHash()));
         }
+        // The entry may have been replaced already, or belong to another position with the same index
+        if (contains(turns, count, move)) return move;
+        return count > 0 ? turns[0] : Move.NONE;
+    }
 
+    private static boolean contains(int[] turns, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (turns[i] == move) return true;
+        }
+        return false;
+    }
 
-        if (isMaximizing) {
-            int bestScore = Integer.MIN_VALUE;
-            short[][] moves = model.generatePossibleMoves(Constants.BLACK);
-            for (short[] move : moves) {
-                model.movePiece(move[0], move[1]);
+    static int firstTurn(Model model) {
+        int[] turns = new int[Model.MAX_TURNS];
+        int count = model.generateTurns(Constants.BLACK, turns);
+        return count > 0 ? turns[0] : Move.NONE;
+    }
 
-                for(int wallPlacement : model.generatePossibleWalls(move[1])){
-                    counter++;
+    public static int minimaxScore(Model model, int depth, int alpha, int beta, boolean isMaximizing) {
+        SearchContext context = new SearchContext(SearchControl.unlimited());
+        int score = minimaxScore(context, model, depth, 0, alpha, beta, isMaximizing);
+        context.flush();
+        return score;
+    }
 
+    // A turn is searched as two half-plies of the same player: the queen move here, then its wall in wallScore.
+    // Queen moves are ordered by the static evaluation after the move, so poor ones are refuted before any
+    // of their walls are generated. depth counts whole turns
+    // The returned score is meaningless once context.control is stopped, callers must check
+    static int minimaxScore(SearchContext context, Model model, int depth, int ply, int alpha, int beta, boolean isMaximizing) {
+        if (model.isGameOver()) {
+            return evaluation(model);
+        }
+        // Once the queens are walled off from each other the result is known without searching.
+        // Not at the root, which still has to find the turn that keeps the win
+        if (options.endgameSolver && ply > 0) {
+            int exact = Endgame.exactScore(model);
+            if (exact != Endgame.UNKNOWN) return exact;
+        }
+        if (depth == 0) {
+            return evaluation(model);
+        }
 
-                    model.placeWall(wallPlacement);
+        TranspositionTable tt = options.useHashTable ? table : null;
+        long hash = model.getHash();
+        int originalAlpha = alpha;
+        int originalBeta = beta;
+
+        int hashMove = Move.NONE;
+
+        if (tt != null) {
+            long entry = tt.probe(hash);
+            if (entry != 0) hashMove = TranspositionTable.move(entry) & QUEEN_MOVE_MASK;
+            // No cutoffs at the root, the caller needs the best turn and not just the score
+            if (entry != 0 && ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT) return score;
+                if (bound == TranspositionTable.LOWER_BOUND) alpha = Math.max(alpha, score);
+                else beta = Math.min(beta, score);
+                if (beta <= alpha) return score;
+            }
+        }
 
-                    bestScore = Math.max(bestScore, minimaxScore(model, depth - 1, alpha, beta, false));
+        int[] queenMoves = context.queenMoves(ply);
+        int[] orderScores = context.queenOrderScores(ply);
+        int count = model.generateQueenMoves(isMaximizing ? Constants.BLACK : Constants.WHITE, queenMoves);
+        scoreQueenMoves(context, model, depth, ply, hashMove, queenMoves, orderScores, count, isMaximizing);
+        boolean beam = options.beamWidth > 0 && ply > 0;
+
+        int bestMove = Move.NONE;
+        int bestScore = isMaximizing ? -INFINITY : INFINITY;
+
+        for (int i = 0; i < count; i++) {
+            int queenMove = pickNextTurn(queenMoves, orderScores, i, count);
+            // Hash and killer moves sort first, so the beam never drops them
+            if (beam && i >= options.beamWidth && orderScores[i] < KILLER_SCORE) break;
+
+            int from = Move.from(queenMove);
+            int to = Move.to(queenMove);
+            int reduction = 0;
+            if (options.lateMoveReductions && depth >= LMR_MIN_DEPTH && i >= options.lmrFullDepthTurns) {
+                reduction = depth > LMR_MIN_DEPTH && i >= 4 * options.lmrFullDepthTurns ? 2 : 1;
+            }
 
-                    model.unPlaceWall(wallPlacement);
-                    alpha = Math.max(alpha, bestScore);
-                    if(beta <= alpha) {
-                        break;
-                    }
+            model.playQueenMove(from, to);
+            int score;
+            if (i == 0 || (!options.principalVariationSearch && reduction == 0)) {
+                score = wallScore(context, model, to, depth, ply, alpha, beta, isMaximizing);
+            } else if (isMaximizing) {
+                // Principal variation search: later moves only have to be proven no better than the
+                // best so far, which a null window does cheaply. Search again properly if one is better.
+                // Late moves are first tried at reduced depth, and get the full depth only if they still look better
+                score = wallScore(context, model, to, depth - reduction, ply, alpha, alpha + 1, true);
+                if (reduction > 0 && score > alpha) {
+                    score = wallScore(context, model, to, depth, ply, alpha, alpha + 1, true);
+                }
+                if (score > alpha && score < beta) {
+                    score = wallScore(context, model, to, depth, ply, alpha, beta, true);
+                }
+            } else {
+                score = wallScore(context, model, to, depth - reduction, ply, beta - 1, beta, false);
+                if (reduction > 0 && score < beta) {
+                    score = wallScore(context, model, to, depth, ply, beta - 1, beta, false);
+                }
+                if (score < beta && score > alpha) {
+                    score = wallScore(context, model, to, depth, ply, alpha, beta, false);
                 }
-
-                model.movePiece(move[1], move[0]);
-
             }
-            return bestScore;
-        } else {
-            int bestScore = Integer.MAX_VALUE;
-            short[][] moves = model.generatePossibleMoves(Constants.WHITE);
-            for (short[] move : moves) {
-
-                model.movePiece(move[0], move[1]);
+            model.undoQueenMove(from, to);
 
-                for(int wallPlacement : model.generatePossibleWalls(move[1])){
-                    counter++;
+            if (isMaximizing) {
+                if (score > bestScore || bestMove == Move.NONE) {
+                    bestScore = score;
+                    bestMove = Move.of(from, to, context.bestWalls[ply]);
+                    if (ply == 0) context.rootBestMove = bestMove;
+                }
+                alpha = Math.max(alpha, bestScore);
+            } else {
+                if (score < bestScore || bestMove == Move.NONE) {
+                    bestScore = score;
+                    bestMove = Move.of(from, to, context.bestWalls[ply]);
+                }
+                beta = Math.min(beta, bestScore);
+            }
 
+            // The turns left are searched under the raised alpha, so a best score at or below it is only
+            // an upper bound and has to be stored as one
+            int sharedAlpha = context.sharedRootAlpha(ply, alpha, beta);
+            if (sharedAlpha > alpha) alpha = originalAlpha = sharedAlpha;
 
-                    model.placeWall(wallPlacement);
+            if (beta <= alpha) {
+                context.recordQueenCutoff(ply, queenMove, depth, i);
+                break;
+            }
+            // Nodes are counted per whole turn, in wallScore
+            if (context.control.isStopped()) break;
+        }
 
-                    bestScore = Math.min(bestScore, minimaxScore(model, depth - 1, alpha, beta, true));
+        if (tt != null && !context.control.isStopped()) {
+            tt.store(hash, depth, bound(bestScore, originalAlpha, originalBeta), bestScore, bestMove);
+        }
+        return bestScore;
+    }
 
-                    model.unPlaceWall(wallPlacement);
-                    beta = Math.min(beta, bestScore);
+    // The wall half of a turn, with the queen already moved to queenSquare and the same player to play.
+    // Leaves the best wall in context.bestWalls[ply]
+    static int wallScore(SearchContext context, Model model, int queenSquare, int depth, int ply, int alpha, int beta, boolean isMaximizing) {
+        TranspositionTable tt = options.useHashTable ? table : null;
+        long hash = model.getHash();
+        int originalAlpha = alpha;
+        int originalBeta = beta;
+
+        int hashWall = -1;
+
+        if (tt != null) {
+            long entry = tt.probe(hash);
+            if (entry != 0 && TranspositionTable.move(entry) != Move.NONE) hashWall = Move.wall(TranspositionTable.move(entry));
+            // The root needs the wall itself, so no cutoffs there either
+            if (entry != 0 && ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (hashWall >= 0) context.bestWalls[ply] = hashWall;
+                if (bound == TranspositionTable.EXACT) return score;
+                if (bound == TranspositionTable.LOWER_BOUND) alpha = Math.max(alpha, score);
+                else beta = Math.min(beta, score);
+                if (beta <= alpha) return score;
+            }
+        }
 
-                    if(beta <= alpha) {
-                        break;
-                    }
+        int[] walls = context.walls(ply);
+        int[] orderScores = context.wallOrderScores(ply);
+        int count = model.generateWalls(queenSquare, walls);
+        int killer1 = context.wallKillers[ply][0];
+        int killer2 = context.wallKillers[ply][1];
+        for (int i = 0; i < count; i++) {
+            int wall = walls[i];
+            if (wall == hashWall) orderScores[i] = Integer.MAX_VALUE;
+            else if (wall == killer1) orderScores[i] = KILLER_SCORE + 1;
+            else if (wall == killer2) orderScores[i] = KILLER_SCORE;
+            else orderScores[i] = context.wallHistory[queenSquare << 6 | wall] + context.nextJitter();
+        }
 
-                }
-                model.movePiece(move[1], move[0]);
+        int bestWall = -1;
+        int bestScore = isMaximizing ? -INFINITY : INFINITY;
+
+        for (int i = 0; i < count; i++) {
+            int wall = pickNextTurn(walls, orderScores, i, count);
+
+            model.playWall(queenSquare, wall);
+            int score;
+            if (i == 0 || !options.principalVariationSearch) {
+                score = minimaxScore(context, model, depth - 1, ply + 1, alpha, beta, !isMaximizing);
+            } else if (isMaximizing) {
+                score = minimaxScore(context, model, depth - 1, ply + 1, alpha, alpha + 1, false);
+                if (score > alpha && score < beta) score = minimaxScore(context, model, depth - 1, ply + 1, alpha, beta, false);
+            } else {
+                score = minimaxScore(context, model, depth - 1, ply + 1, beta - 1, beta, true);
+                if (score < beta && score > alpha) score = minimaxScore(context, model, depth - 1, ply + 1, alpha, beta, true);
             }
-            return bestScore;
-        }
-    }
+            model.undoWall(queenSquare, wall);
 
+            if (isMaximizing ? score > bestScore : score < bestScore) {
+                bestScore = score;
+                bestWall = wall;
+            }
+            if (isMaximizing) alpha = Math.max(alpha, bestScore);
+            else beta = Math.min(beta, bestScore);
 
-    public static int evaluation(Model model){
+            // The turns left are searched under the raised alpha, so a best score at or below it is only
+            // an upper bound and has to be stored as one
+            int sharedAlpha = context.sharedRootAlpha(ply, alpha, beta);
+            if (sharedAlpha > alpha) alpha = originalAlpha = sharedAlpha;
 
-        if(model.isGameOver()){
-            return model.getCurrentPlayer() == Constants.WHITE ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+            if (beta <= alpha) {
+                context.recordWallCutoff(ply, queenSquare, wall, depth, i);
+                break;
+            }
+            if (context.visitNode()) break;
         }
 
-        short[] whiteQueenPositions = model.getWhiteQueenPositions();
-        short[] blackQueenPositions = model.getBlackQueenPositions();
+        context.bestWalls[ply] = bestWall;
+        if (tt != null && !context.control.isStopped()) {
+            // Only the wall is needed back, the queen square keeps the packed move non-zero
+            tt.store(hash, depth, bound(bestScore, originalAlpha, originalBeta), bestScore, Move.of(0, queenSquare, bestWall));
+        }
+        return bestScore;
+    }
 
+    private static int bound(int score, int originalAlpha, int originalBeta) {
+        return score <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                : score >= originalBeta ? TranspositionTable.LOWER_BOUND
+                : TranspositionTable.EXACT;
+    }
 
-        int positionEvaluation = 0;
-        for(int whiteQueenPosition : whiteQueenPositions){
-            int whiteQueenOptions= getQueenOptionsAmount(model, whiteQueenPosition);
-            positionEvaluation -= whiteQueenOptions;
+    // Ordering: hash move, then the killers of this ply, then the static evaluation after the move from the
+    // mover's point of view. Close to the leaves that costs more than it saves, so destination mobility
+    // and cutoff history are used there instead
+    static void scoreQueenMoves(SearchContext context, Model model, int depth, int ply, int hashMove,
+                                int[] queenMoves, int[] orderScores, int count, boolean isMaximizing) {
+        int killer1 = context.queenKillers[ply][0];
+        int killer2 = context.queenKillers[ply][1];
+        long occupancy = model.getOccupancy();
+
+        for (int i = 0; i < count; i++) {
+            int queenMove = queenMoves[i];
+            int from = Move.from(queenMove);
+            int to = Move.to(queenMove);
+            if (queenMove == hashMove && ply == 0 && context.rootHashMoveLast) {
+                orderScores[i] = Integer.MIN_VALUE;
+            } else if (queenMove == hashMove) {
+                orderScores[i] = Integer.MAX_VALUE;
+            } else if (queenMove == killer1) {
+                orderScores[i] = KILLER_SCORE + 1;
+            } else if (queenMove == killer2) {
+                orderScores[i] = KILLER_SCORE;
+            } else if (depth >= QUEEN_EVAL_MIN_DEPTH) {
+                model.playQueenMove(from, to);
+                int score = evaluation(model);
+                model.undoQueenMove(from, to);
+                orderScores[i] = (isMaximizing ? score : -score) + context.nextJitter();
+            } else {
+                long movedOccupancy = (occupancy & ~(1L << from)) | (1L << to);
+                orderScores[i] = context.queenHistory[queenMove]
+                        + Long.bitCount(MagicBitboard.getQueenAttacks(to, movedOccupancy)) + context.nextJitter();
+            }
         }
+    }
 
-        for(int blackQueenPosition : blackQueenPositions){
-            int blackQueenOptions= getQueenOptionsAmount(model, blackQueenPosition);
-            positionEvaluation += blackQueenOptions;
+    // Selection sort step: moves the best remaining turn to index and returns it.
+    // Most nodes cut after a few turns, so sorting the whole list would be wasted work
+    private static int pickNextTurn(int[] turns, int[] orderScores, int index, int count) {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (orderScores[i] > orderScores[best]) best = i;
         }
-
-
-        return positionEvaluation;
+        int move = turns[best];
+        turns[best] = turns[index];
+        turns[index] = move;
+        int score = orderScores[best];
+        orderScores[best] = orderScores[index];
+        orderScores[index] = score;
+        return move;
     }
 
-    private static int getQueenOptionsAmount(Model model, int position) {
-        int possibleOptions = 0;
+    public static int evaluation(Model model){
 
-        // Check surrounding squares for walls
-        int[] possibleMoves = Constants.POSSIBLE_MOVES[position];
-        for(int newPos : possibleMoves){
-            if(newPos == 0) break;
-            if (model.isWalkable(newPos)) {
-                possibleOptions++;
-            }
+        if(model.isGameOver()){
+            return model.getWinner() == Constants.BLACK ? WIN_SCORE : -WIN_SCORE;
         }
 
-        return possibleOptions;
+        return options.evaluator.evaluate(model);
     }
 
 
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package Game.AI;
+
+import Game.Constants;
+import Game.Model;
+
+// Counts the free squares around every queen
+public class MobilityEvaluator implements Evaluator {
+
+    @Override
+    public int evaluate(Model model) {
+        short[] whiteQueenPositions = model.getWhiteQueenPositions();
+        short[] blackQueenPositions = model.getBlackQueenPositions();
+
+
+        int positionEvaluation = 0;
+        for(int whiteQueenPosition : whiteQueenPositions){
+            int whiteQueenOptions= getQueenOptionsAmount(model, whiteQueenPosition);
+            positionEvaluation -= whiteQueenOptions;
+        }
+
+        for(int blackQueenPosition : blackQueenPositions){
+            int blackQueenOptions= getQueenOptionsAmount(model, blackQueenPosition);
+            positionEvaluation += blackQueenOptions;
+        }
+
+
+        return positionEvaluation;
+    }
+
+    private static int getQueenOptionsAmount(Model model, int position) {
+        int possibleOptions = 0;
+
+        // Check surrounding squares for walls
+        int[] possibleMoves = Constants.POSSIBLE_MOVES[position];
+        for(int newPos : possibleMoves){
+            if(newPos == 0) break;
+            if (model.isWalkable(newPos)) {
+                possibleOptions++;
+            }
+        }
+
+        return possibleOptions;
+    }
+}
@@ -0,0 +1,365 @@
+package Game.AI;
+
+import Game.Constants;
+import Game.Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Monte Carlo tree search over whole turns: UCT selection with progressive widening, random playouts to the
+// end of the game, and every core working on one shared tree. A thread counts the visit of each node on its
+// way down before the playout result is known, a virtual loss that steers the other threads to different
+// branches until it comes back.
+// The tree lives in a pool of parallel arrays allocated once, so memory stays bounded whatever the budget;
+// once the pool is full the leaves are no longer expanded and only collect more playouts.
+// Runs one search at a time, like AsyncEngine calls it. A node of the budget is one playout.
+public class MonteCarloSearch implements Engine {
+
+    // About 20 bytes a node
+    public static final int DEFAULT_CAPACITY = 1 << 21;
+
+    // Win rates are in [0, 1]. Lower than the textbook sqrt(2) since there are far more turns than playouts
+    private static final double EXPLORATION = 0.5;
+    // A leaf gets children once it has seen this many playouts, so the pool isn't spent on one-off leaves
+    private static final int EXPAND_VISITS = 16;
+    // Below the root only this many children, best prior first, are kept. Widening needs thousands of
+    // visits to reach them all, which few nodes but the root get
+    private static final int MAX_CHILDREN = 128;
+    // Progressive widening: a node with n visits chooses among its first WIDENING_BASE + WIDENING * sqrt(n)
+    // children, best prior first, instead of trying each of up to two thousand turns once
+    private static final int WIDENING_BASE = 4;
+    private static final double WIDENING = 2.0;
+    // Prior scores sit above the 18 bits of the packed turn while children are sorted
+    private static final int PRIOR_SHIFT = 18;
+    // Playouts are reported to the shared control in batches, like SearchContext does with nodes
+    private static final int PLAYOUT_BATCH = 64;
+    // No game lasts longer than there are squares to fill
+    private static final int MAX_PLIES = Model.BOARD_SIZE * Model.BOARD_SIZE;
+
+    // Values of firstChild besides the index of the first child
+    private static final int UNEXPANDED = 0;
+    private static final int EXPANDING = -1;
+    private static final int POOL_FULL = -2;
+
+    private final int capacity;
+    // Node 0 is the root. Children of a node are next to each other, first at firstChild, childCounts long.
+    // firstChild is written last, so a thread that sees it also sees the children
+    private final int[] moves;
+    private final int[] childCounts;
+    private final AtomicIntegerArray firstChild;
+    private final AtomicIntegerArray visits;
+    // Playouts won by the side that played the turn leading to the node
+    private final AtomicIntegerArray wins;
+    private final AtomicInteger nextFree = new AtomicInteger();
+
+    // Root position of the current search
+    private long rootWhite;
+    private long rootBlack;
+    private long rootWalls;
+    private int rootPlayer;
+    // Node of the turn the last search chose and the hash of the position after it, for predictReply
+    private int chosenNode;
+    private long chosenHash;
+
+    public MonteCarloSearch(int capacity) {
+        this.capacity = capacity;
+        moves = new int[capacity];
+        childCounts = new int[capacity];
+        firstChild = new AtomicIntegerArray(capacity);
+        visits = new AtomicIntegerArray(capacity);
+        wins = new AtomicIntegerArray(capacity);
+    }
+
+    // Returns the most visited turn once control stops
+    @Override
+    public short[] bestMove(Model model, SearchControl control) {
+        rootWhite = model.getWhiteQueens();
+        rootBlack = model.getBlackQueens();
+        rootWalls = model.getWalls();
+        rootPlayer = model.getCurrentPlayer();
+        chosenNode = 0;
+        clearNode(0);
+        nextFree.set(1);
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Future<?>> helpers = new ArrayList<>();
+        for (int id = 1; id < threads; id++) {
+            long seed = 0x9E3779B97F4A7C15L * (id + 1);
+            // Minimax's engine pool, so there is one set of worker threads whichever engine plays
+            helpers.add(Minimax.getPool().submit(() -> new Worker(seed).run(control)));
+        }
+        new Worker(0x9E3779B97F4A7C15L).run(control);
+
+        control.stop();
+        for (Future<?> helper : helpers) {
+            try {
+                helper.get();
+            } catch (InterruptedException | ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+
+        int best = mostVisitedChild(0);
+        short[] value = Move.toArray(best != 0 ? moves[best] : firstTurn(model));
+        chosenNode = best;
+        if (best != 0) {
+            Model after = model.copy();
+            after.playTurn(moves[best]);
+            chosenHash = after.getHash();
+        }
+
+        if (Minimax.getOptions().verbose) {
+            System.out.println();
+            System.out.println("Time took = " + control.elapsedMillis() + " ms");
+            System.out.println("Playouts = " + control.getNodes());
+            System.out.println("Tree nodes = " + Math.min(nextFree.get(), capacity));
+            if (best != 0) {
+                System.out.println("Visits = " + visits.get(best) + String.format(", win rate %.1f%%",
+                        100.0 * wins.get(best) / Math.max(1, visits.get(best))));
+            }
+            System.out.println("Chosen = " + Arrays.toString(value));
+        }
+        return value;
+    }
+
+    // Stopped before any playout reached the root's children: any legal turn beats none, like Minimax
+    private static int firstTurn(Model model) {
+        int[] turns = new int[Model.MAX_TURNS];
+        int count = model.generateTurns(model.getCurrentPlayer(), turns);
+        return count > 0 ? turns[0] : Move.NONE;
+    }
+
+    // The reply the last search spent the most playouts on below its chosen turn. Minimax's prediction when
+    // model isn't the position after that turn or the turn never got children
+    @Override
+    public int predictReply(Model model, SearchControl control) {
+        int reply = chosenNode != 0 && chosenHash == model.getHash() ? mostVisitedChild(chosenNode) : 0;
+        return reply != 0 ? moves[reply] : Minimax.predictReply(model, control);
+    }
+
+    // Index of the child of node with the most visits, 0 when node has none
+    private int mostVisitedChild(int node) {
+        int first = firstChild.get(node);
+        if (first <= 0) return 0;
+        int best = 0;
+        int bestVisits = -1;
+        for (int child = first; child < first + childCounts[node]; child++) {
+            if (visits.get(child) > bestVisits) {
+                bestVisits = visits.get(child);
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    private void clearNode(int node) {
+        childCounts[node] = 0;
+        firstChild.set(node, UNEXPANDED);
+        visits.set(node, 0);
+        wins.set(node, 0);
+    }
+
+    private static int opponent(int player) {
+        return player == Constants.WHITE ? Constants.BLACK : Constants.WHITE;
+    }
+
+    private static long kingNeighbours(long queens) {
+        long neighbours = 0L;
+        for (; queens != 0; queens &= queens - 1) {
+            neighbours |= Constants.KING_NEIGHBOURS[Long.numberOfTrailingZeros(queens)];
+        }
+        return neighbours;
+    }
+
+    // One search thread: its own board, path and random numbers, everything else is the shared tree
+    private class Worker {
+
+        private final int[] path = new int[MAX_PLIES + 1];
+        private final int[] turns = new int[Model.MAX_TURNS];
+        private long random;
+
+        private long white;
+        private long black;
+        private long walls;
+        private int toMove;
+
+        Worker(long seed) {
+            random = seed;
+        }
+
+        void run(SearchControl control) {
+            int pending = 0;
+            while (!control.isStopped()) {
+                iterate();
+                if (++pending == PLAYOUT_BATCH) {
+                    control.addNodes(pending);
+                    pending = 0;
+                }
+            }
+            control.addNodes(pending);
+        }
+
+        // Select down to a leaf, expand it if it has been visited enough, play it out and back up the result
+        private void iterate() {
+            white = rootWhite;
+            black = rootBlack;
+            walls = rootWalls;
+            toMove = rootPlayer;
+
+            int node = 0;
+            int length = 0;
+            path[length++] = node;
+            visits.incrementAndGet(node);
+
+            int winner;
+            while (true) {
+                int first = firstChild.get(node);
+                if (first == UNEXPANDED && (node == 0 || visits.get(node) > EXPAND_VISITS)) {
+                    first = expand(node);
+                }
+                if (first <= 0) {
+                    winner = playout();
+                    break;
+                }
+                int count = childCounts[node];
+                if (count == 0) {
+                    // The side to move is stuck
+                    winner = opponent(toMove);
+                    break;
+                }
+
+                node = select(node, first, count);
+                // Counted now, won only later: the virtual loss other threads see meanwhile
+                visits.incrementAndGet(node);
+                path[length++] = node;
+                play(moves[node]);
+            }
+
+            // The node at an odd depth was reached by a turn of the root player
+            for (int depth = 1; depth < length; depth++) {
+                int mover = depth % 2 == 1 ? rootPlayer : opponent(rootPlayer);
+                if (mover == winner) wins.incrementAndGet(path[depth]);
+            }
+        }
+
+        // Among the children widening lets in, unvisited ones first in prior order, then the best upper
+        // confidence bound
+        private int select(int node, int first, int count) {
+            int parentVisits = Math.max(1, visits.get(node));
+            double logParentVisits = Math.log(parentVisits);
+            int width = Math.min(count, WIDENING_BASE + (int) (WIDENING * Math.sqrt(parentVisits)));
+            int best = first;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < first + width; child++) {
+                int childVisits = visits.get(child);
+                if (childVisits == 0) return child;
+                double score = (double) wins.get(child) / childVisits
+                        + EXPLORATION * Math.sqrt(logParentVisits / childVisits);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        // Adds the turns of the side to move as children, best prior first. Returns the new firstChild, or a
+        // value <= 0 when another thread is expanding the node or the pool has no room
+        private int expand(int node) {
+            if (!firstChild.compareAndSet(node, UNEXPANDED, EXPANDING)) return firstChild.get(node);
+
+            int count = generateTurns();
+            Arrays.sort(turns, 0, count);
+            int kept = node == 0 ? count : Math.min(count, MAX_CHILDREN);
+            // Checked first so a full pool doesn't keep pushing nextFree up
+            int start = nextFree.get() + kept > capacity ? capacity : nextFree.getAndAdd(kept);
+            if (start + kept > capacity) {
+                firstChild.set(node, POOL_FULL);
+                return POOL_FULL;
+            }
+            for (int i = 0; i < kept; i++) {
+                clearNode(start + i);
+                // Highest prior first
+                moves[start + i] = turns[count - 1 - i] & ((1 << PRIOR_SHIFT) - 1);
+            }
+            childCounts[node] = kept;
+            firstChild.set(node, start);
+            return start;
+        }
+
+        // Turns of the side to move with their prior on top: room around the queen's new square, and walls
+        // next to enemy queens
+        private int generateTurns() {
+            long occupancy = white | black | walls;
+            long enemy = toMove == Constants.WHITE ? black : white;
+            int k = 0;
+            for (long queens = toMove == Constants.WHITE ? white : black; queens != 0; queens &= queens - 1) {
+                int from = Long.numberOfTrailingZeros(queens);
+                for (long targets = MagicBitboard.getQueenAttacks(from, occupancy); targets != 0; targets &= targets - 1) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    long wallOccupancy = occupancy ^ (1L << from) ^ (1L << to);
+                    int room = Long.bitCount(Constants.KING_NEIGHBOURS[to] & ~wallOccupancy);
+                    for (long wallTargets = MagicBitboard.getQueenAttacks(to, wallOccupancy); wallTargets != 0; wallTargets &= wallTargets - 1) {
+                        int wall = Long.numberOfTrailingZeros(wallTargets);
+                        int prior = room + 2 * Long.bitCount(Constants.KING_NEIGHBOURS[wall] & enemy);
+                        turns[k++] = prior << PRIOR_SHIFT | Move.of(from, to, wall);
+                    }
+                }
+            }
+            return k;
+        }
+
+        private void play(int move) {
+            long queenMove = (1L << Move.from(move)) | (1L << Move.to(move));
+            if (toMove == Constants.WHITE) white ^= queenMove;
+            else black ^= queenMove;
+            walls |= 1L << Move.wall(move);
+            toMove = opponent(toMove);
+        }
+
+        // Random turns until one side is stuck, returns the winner. A queen is picked among those that can
+        // move, then a random target and a random wall; half of the walls go next to an enemy queen when one
+        // can, which is most of what a real player does with them
+        private int playout() {
+            while (true) {
+                long own = toMove == Constants.WHITE ? white : black;
+                long enemy = toMove == Constants.WHITE ? black : white;
+                long occupancy = white | black | walls;
+                long empty = ~occupancy;
+
+                long movable = 0;
+                for (long queens = own; queens != 0; queens &= queens - 1) {
+                    long queen = queens & -queens;
+                    if ((Constants.KING_NEIGHBOURS[Long.numberOfTrailingZeros(queen)] & empty) != 0) movable |= queen;
+                }
+                if (movable == 0) return opponent(toMove);
+
+                int from = randomSquare(movable);
+                int to = randomSquare(MagicBitboard.getQueenAttacks(from, occupancy));
+                long wallTargets = MagicBitboard.getQueenAttacks(to, occupancy ^ (1L << from) ^ (1L << to));
+                long nearEnemy = wallTargets & kingNeighbours(enemy);
+                if (nearEnemy != 0 && (nextRandom() & 1) == 0) wallTargets = nearEnemy;
+
+                play(Move.of(from, to, randomSquare(wallTargets)));
+            }
+        }
+
+        private int randomSquare(long squares) {
+            int skip = (int) ((nextRandom() >>> 32) * Long.bitCount(squares) >>> 32);
+            for (; skip > 0; skip--) squares &= squares - 1;
+            return Long.numberOfTrailingZeros(squares);
+        }
+
+        private long nextRandom() {
+            random ^= random << 13;
+            random ^= random >>> 7;
+            random ^= random << 17;
+            return random;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package Game.AI;
+
+// A full turn (queen from, queen to, wall) packed into an int, 6 bits per square.
+// 0 is never a legal turn since a queen can't move onto its own square.
+public class Move {
+
+    public static final int NONE = 0;
+
+    public static int of(int from, int to, int wall) {
+        return from | (to << 6) | (wall << 12);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int wall(int move) {
+        return (move >>> 12) & 63;
+    }
+
+    public static short[] toArray(int move) {
+        return new short[]{(short) from(move), (short) to(move), (short) wall(move)};
+    }
+
+    public static String toString(int move) {
+        return from(move) + "-" + to(move) + "/" + wall(move);
+    }
+}
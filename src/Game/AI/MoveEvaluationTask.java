@@ -2,51 +2,101 @@ package Game.AI;
 
 import Game.Model;
 
-import java.util.Arrays;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static Game.AI.Minimax.minimaxScore;
+import static Game.AI.Minimax.wallScore;
 
 class MoveEvaluationTask implements Callable<MoveResult> {
-    private final Model model;
-    private final short[] move;
-    private final short wallPlacement;
+
+    // Each worker thread reuses one Model instead of allocating a copy per task
+    private static final ThreadLocal<Model> workerModel = ThreadLocal.withInitial(Model::new);
+
+    private final Model root;
+    // The task searches every wall of this queen move, packed as Move.of(from, to, 0)
+    private final int queenMove;
+    private final boolean first;
     private final int depth;
+    private final int beta;
+    private final SearchControl control;
+    private final AtomicInteger rootAlpha;
 
-    public MoveEvaluationTask(Model model, short[] move, short wallPlacement, int depth) {
-        this.model = model.deepCopy(); // Assuming you have a copy method to avoid modifying the original model
-        this.move = move;
-        this.wallPlacement = wallPlacement;
+    // root must not change while tasks are running, pass a snapshot taken with Model.copy()
+    public MoveEvaluationTask(Model root, int queenMove, boolean first, int depth, int beta, SearchControl control, AtomicInteger rootAlpha) {
+        this.root = root;
+        this.queenMove = queenMove;
+        this.first = first;
         this.depth = depth;
+        this.beta = beta;
+        this.control = control;
+        this.rootAlpha = rootAlpha;
     }
 
     @Override
     public MoveResult call() {
-        model.movePiece(move[0], move[1]);
-        model.placeWall(wallPlacement);
+        int alpha = rootAlpha.get();
+
+        // Tasks still queued when the search is stopped or already failed high have nothing useful to add
+        if (control.isStopped() || alpha >= beta) return new MoveResult(Move.NONE, alpha, alpha);
 
-        int score = minimaxScore(model, depth - 1, Integer.MIN_VALUE, Integer.MAX_VALUE, false);
+        Model model = workerModel.get();
+        root.copyInto(model);
 
-        model.unPlaceWall(wallPlacement);
-        model.movePiece(move[1], move[0]);
+        int from = Move.from(queenMove);
+        int to = Move.to(queenMove);
+        model.playQueenMove(from, to);
 
-        return new MoveResult(move, wallPlacement, score);
+        SearchContext context = SearchContext.current();
+        context.reset(control, rootAlpha);
+
+        int score;
+        if (first || !Minimax.getOptions().principalVariationSearch || alpha == -Minimax.INFINITY) {
+            score = wallScore(context, model, to, depth, 0, alpha, beta, true);
+        } else {
+            // Null window first: most root moves only need to be shown no better than the best so far
+            score = wallScore(context, model, to, depth, 0, alpha, alpha + 1, true);
+            if (score > alpha && score < beta) {
+                // A fail high only says the move is worth at least score, it may be worth more than what
+                // other tasks proved meanwhile. Always re-search, from the best root score there is now
+                int sharedAlpha = Math.max(alpha, rootAlpha.get());
+                if (sharedAlpha < beta) {
+                    alpha = sharedAlpha;
+                    score = wallScore(context, model, to, depth, 0, alpha, beta, true);
+                }
+            }
+        }
+        context.flush();
+        int move = Move.of(from, to, context.bestWalls[0]);
+
+        // A score that doesn't beat what another task proved meanwhile is only a bound, the search
+        // below may have cut against the raised alpha
+        alpha = Math.max(alpha, rootAlpha.get());
+        if (score > alpha) {
+            rootAlpha.accumulateAndGet(score, Math::max);
+        }
+        return new MoveResult(move, score, alpha);
     }
 }
 
 class MoveResult {
-    public final short[] move;
-    public final short wallPlacement;
+    public final int move;
     public final int score;
+    // The lower bound of the window the move was searched with
+    public final int alpha;
 
-    public MoveResult(short[] move, short wallPlacement, int score) {
+    public MoveResult(int move, int score, int alpha) {
         this.move = move;
-        this.wallPlacement = wallPlacement;
         this.score = score;
+        this.alpha = alpha;
+    }
+
+    // A score at or below alpha only says the move is no better than alpha
+    public boolean isExact() {
+        return score > alpha;
     }
 
     @Override
     public String toString() {
-        return "score=" + score;
+        return Move.toString(move) + " score=" + score;
     }
 }
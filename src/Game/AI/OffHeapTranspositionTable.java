@@ -0,0 +1,129 @@
+package Game.AI;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Transposition table in direct memory, so multi-gigabyte tables cost the garbage collector nothing.
+// The table is split into 64 byte buckets aligned to cache lines, each holding four 16 byte entries
+// (hash XOR entry, entry). A probe touches exactly one cache line.
+public class OffHeapTranspositionTable implements TranspositionTable {
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_BYTES = 64;
+    private static final int ENTRIES_PER_BUCKET = BUCKET_BYTES / ENTRY_BYTES;
+
+    // A ByteBuffer is indexed by int, so larger tables are split into 1 GB chunks
+    private static final int CHUNK_SHIFT = 30;
+    private static final int BUCKETS_PER_CHUNK_SHIFT = CHUNK_SHIFT - 6;
+    private static final long PAGE_BYTES = 4096;
+
+    private final ByteBuffer[] chunks;
+    private final long bucketMask;
+    private final int sizeMb;
+    private int generation;
+
+    public OffHeapTranspositionTable(int sizeMb, boolean prefault) {
+        long wanted = Math.max(1, (long) sizeMb * 1024 * 1024 / BUCKET_BYTES);
+        long buckets = Long.highestOneBit(wanted);
+        long bytes = buckets * BUCKET_BYTES;
+
+        int chunkCount = (int) Math.max(1, bytes >>> CHUNK_SHIFT);
+        int chunkBytes = (int) Math.min(bytes, 1L << CHUNK_SHIFT);
+        chunks = new ByteBuffer[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            // Over-allocate by a bucket so the slice can start on a cache line boundary
+            chunks[i] = ByteBuffer.allocateDirect(chunkBytes + BUCKET_BYTES)
+                    .alignedSlice(BUCKET_BYTES)
+                    .order(ByteOrder.nativeOrder());
+        }
+
+        this.bucketMask = buckets - 1;
+        this.sizeMb = sizeMb;
+
+        if (prefault) prefault();
+    }
+
+    @Override
+    public int getSizeMb() {
+        return sizeMb;
+    }
+
+    @Override
+    public long capacity() {
+        return (bucketMask + 1) * ENTRIES_PER_BUCKET;
+    }
+
+    @Override
+    public void newSearch() {
+        generation = (generation + 1) & 15;
+    }
+
+    @Override
+    public void clear() {
+        for (ByteBuffer chunk : chunks) {
+            for (int offset = 0; offset < chunk.capacity(); offset += 8) {
+                chunk.putLong(offset, 0L);
+            }
+        }
+    }
+
+    // Writes one word per page so the operating system maps the whole table up front
+    // instead of page faulting during the first searches
+    private void prefault() {
+        for (ByteBuffer chunk : chunks) {
+            for (long offset = 0; offset < chunk.capacity(); offset += PAGE_BYTES) {
+                chunk.putLong((int) offset, 0L);
+            }
+        }
+    }
+
+    @Override
+    public long probe(long hash) {
+        long bucket = hash & bucketMask;
+        ByteBuffer chunk = chunks[(int) (bucket >>> BUCKETS_PER_CHUNK_SHIFT)];
+        int base = bucketOffset(bucket);
+
+        for (int slot = 0; slot < ENTRIES_PER_BUCKET; slot++) {
+            int offset = base + slot * ENTRY_BYTES;
+            long entry = chunk.getLong(offset + 8);
+            if (entry != 0 && (chunk.getLong(offset) ^ entry) == hash) return entry;
+        }
+        return 0L;
+    }
+
+    @Override
+    public void store(long hash, int depth, int bound, int score, int move) {
+        long bucket = hash & bucketMask;
+        ByteBuffer chunk = chunks[(int) (bucket >>> BUCKETS_PER_CHUNK_SHIFT)];
+        int base = bucketOffset(bucket);
+
+        // Same position if present, otherwise an empty slot, otherwise the least valuable entry:
+        // entries from older searches first, then the shallowest
+        int target = -1;
+        int replaceValue = Integer.MAX_VALUE;
+        for (int slot = 0; slot < ENTRIES_PER_BUCKET; slot++) {
+            int offset = base + slot * ENTRY_BYTES;
+            long entry = chunk.getLong(offset + 8);
+            if (entry != 0 && (chunk.getLong(offset) ^ entry) == hash) {
+                // Keep the known best move when re-storing a position without one
+                if (move == Move.NONE) move = TranspositionTable.move(entry);
+                target = offset;
+                break;
+            }
+            int value = entry == 0 ? Integer.MIN_VALUE
+                    : TranspositionTable.depth(entry) - (TranspositionTable.generation(entry) == generation ? 0 : 256);
+            if (value < replaceValue) {
+                target = offset;
+                replaceValue = value;
+            }
+        }
+
+        long entry = TranspositionTable.pack(depth, bound, score, move, generation);
+        chunk.putLong(target + 8, entry);
+        chunk.putLong(target, hash ^ entry);
+    }
+
+    private static int bucketOffset(long bucket) {
+        return (int) (bucket & ((1L << BUCKETS_PER_CHUNK_SHIFT) - 1)) * BUCKET_BYTES;
+    }
+}
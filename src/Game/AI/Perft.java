@@ -0,0 +1,198 @@
+package Game.AI;
+
+import Game.Constants;
+import Game.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Counts the (queen move, wall) leaf turns of the game tree to a fixed depth.
+// Usage: Perft <depth> [position name | 64 square board] [--divide] [--verify] [--threads N] [--wide]
+// --wide counts the standard 10x10 game on a WideBoard instead, single threaded
+public class Perft {
+
+    // Below this depth a subtree is counted on the current thread instead of being split further
+    private static final int SPLIT_DEPTH = 3;
+
+    private static final String USAGE = "Usage: Perft <depth> [position|board] [--divide] [--verify] [--threads N] [--wide]";
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        // --divide splits the count over the root turns, which needs at least one ply
+        if (depth < 1) {
+            System.out.println("Depth must be at least 1");
+            System.out.println(USAGE);
+            return;
+        }
+        Model model = new Model();
+        boolean divide = false;
+        boolean verify = false;
+        boolean wide = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--divide": divide = true; break;
+                case "--verify": verify = true; break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--wide": wide = true; break;
+                default:
+                    model = args[i].length() >= Model.BOARD_SIZE * Model.BOARD_SIZE
+                            ? Model.fromString(args[i], Constants.BLACK)
+                            : Positions.get(args[i]);
+            }
+        }
+
+        if (wide) {
+            WideBoard board = WideBoard.standard();
+            System.out.print(board);
+            long startTime = System.nanoTime();
+            long nodes = board.perft(depth);
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            System.out.println("Nodes = " + nodes);
+            System.out.println(String.format("Time = %.3f s, %.0f nodes/s", seconds, nodes / seconds));
+            return;
+        }
+
+        System.out.print(model);
+
+        if (verify) {
+            long packed = perft(model, depth);
+            long reference = perftReference(model, depth);
+            System.out.println("generateTurns = " + packed + ", generatePossibleMoves/Walls = " + reference
+                    + (packed == reference ? " OK" : " MISMATCH"));
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        long nodes;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        if (divide) {
+            nodes = 0;
+            for (DivideResult result : divide(model, depth, pool)) {
+                System.out.println(Move.toString(result.move) + ": " + result.nodes);
+                nodes += result.nodes;
+            }
+        } else {
+            nodes = pool.invoke(new PerftTask(model.copy(), depth));
+        }
+        pool.shutdown();
+
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.println("Nodes = " + nodes);
+        System.out.println(String.format("Time = %.3f s, %.0f nodes/s", seconds, nodes / seconds));
+    }
+
+    public static long perft(Model model, int depth) {
+        if (depth == 0) return 1;
+        return perft(model, depth, new int[depth][Model.MAX_TURNS]);
+    }
+
+    public static long parallelPerft(Model model, int depth, ForkJoinPool pool) {
+        return pool.invoke(new PerftTask(model.copy(), depth));
+    }
+
+    // Node count below each root turn, in generation order
+    public static List<DivideResult> divide(Model model, int depth, ForkJoinPool pool) {
+        Model root = model.copy();
+        int[] turns = new int[Model.MAX_TURNS];
+        int count = root.generateTurns(root.getCurrentPlayer(), turns);
+
+        List<PerftTask> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Model child = root.copy();
+            child.playTurn(turns[i]);
+            tasks.add(new PerftTask(child, depth - 1));
+        }
+
+        List<DivideResult> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(new DivideResult(turns[i], pool.invoke(tasks.get(i))));
+        }
+        return results;
+    }
+
+    private static long perft(Model model, int depth, int[][] buffers) {
+        int[] turns = buffers[depth - 1];
+        int count = model.generateTurns(model.getCurrentPlayer(), turns);
+
+        // Bulk counting: the turns of the last ply are counted without being played
+        if (depth == 1) return count;
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            model.playTurn(turns[i]);
+            nodes += perft(model, depth - 1, buffers);
+            model.undoTurn(turns[i]);
+        }
+        return nodes;
+    }
+
+    // Same count through the array returning generators the UI uses, playing every queen move before its walls
+    public static long perftReference(Model model, int depth) {
+        if (depth == 0) return 1;
+
+        long nodes = 0;
+        for (short[] move : model.generatePossibleMoves(model.getCurrentPlayer())) {
+            model.movePiece(move[0], move[1]);
+            for (short wall : model.generatePossibleWalls(move[1])) {
+                model.placeWall(wall);
+                nodes += perftReference(model, depth - 1);
+                model.unPlaceWall(wall);
+            }
+            model.movePiece(move[1], move[0]);
+        }
+        return nodes;
+    }
+
+    public static class DivideResult {
+        public final int move;
+        public final long nodes;
+
+        DivideResult(int move, long nodes) {
+            this.move = move;
+            this.nodes = nodes;
+        }
+    }
+
+    private static class PerftTask extends RecursiveTask<Long> {
+        private final Model model;
+        private final int depth;
+
+        PerftTask(Model model, int depth) {
+            this.model = model;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SPLIT_DEPTH) return perft(model, depth);
+
+            int[] turns = new int[Model.MAX_TURNS];
+            int count = model.generateTurns(model.getCurrentPlayer(), turns);
+
+            List<PerftTask> children = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Model child = model.copy();
+                child.playTurn(turns[i]);
+                PerftTask task = new PerftTask(child, depth - 1);
+                task.fork();
+                children.add(task);
+            }
+
+            long nodes = 0;
+            for (PerftTask task : children) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package Game.AI;
+
+import Game.Constants;
+import Game.Model;
+
+// Fixed test positions, all with black (the AI) to move. Shared by the benchmarks and the tools
+public class Positions {
+
+    public static final String[] NAMES = {"opening", "middlegame", "endgame"};
+    // Wider set for comparing search variants against each other
+    public static final String[] SUITE = {"opening", "middlegame", "middlegame2", "middlegame3", "lategame", "endgame"};
+
+    private static final String OPENING =
+            ".....W.." +
+            "........" +
+            ".#.B...#" +
+            "....W#.." +
+            ".......W" +
+            "........" +
+            "........" +
+            "....BB..";
+
+    private static final String MIDDLEGAME =
+            "#W..#..." +
+            "#..#W#.B" +
+            "#.#..#.#" +
+            ".#.###.W" +
+            "..#....." +
+            "....B..#" +
+            ".B......" +
+            "..#..#..";
+
+    private static final String MIDDLEGAME_2 =
+            "..#W#..W" +
+            "#......." +
+            "...#...#" +
+            "B..W.#.." +
+            "....#..." +
+            ".##.B.#." +
+            "...##..." +
+            "...B..#.";
+
+    private static final String MIDDLEGAME_3 =
+            "...##.#." +
+            "..#..W.." +
+            "..#.####" +
+            "#.#.#..W" +
+            "B.#B.W#." +
+            "#....###" +
+            "#..#..B." +
+            "##.#.##.";
+
+    private static final String LATEGAME =
+            "..#.#..#" +
+            "###.###." +
+            ".#.#...#" +
+            "...W.#.B" +
+            "#.W.###." +
+            "B##.W.#." +
+            "...###.." +
+            "..#..B#.";
+
+    private static final String ENDGAME =
+            "#.#.B.##" +
+            "##.###W#" +
+            ".###..##" +
+            ".#W#.#.#" +
+            "..B####W" +
+            "####.##." +
+            "....B#.#" +
+            "#.###...";
+
+    public static Model get(String name) {
+        switch (name) {
+            case "opening": return Model.fromString(OPENING, Constants.BLACK);
+            case "middlegame": return Model.fromString(MIDDLEGAME, Constants.BLACK);
+            case "middlegame2": return Model.fromString(MIDDLEGAME_2, Constants.BLACK);
+            case "middlegame3": return Model.fromString(MIDDLEGAME_3, Constants.BLACK);
+            case "lategame": return Model.fromString(LATEGAME, Constants.BLACK);
+            case "endgame": return Model.fromString(ENDGAME, Constants.BLACK);
+            default: throw new IllegalArgumentException("Unknown position " + name);
+        }
+    }
+}
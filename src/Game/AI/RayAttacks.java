@@ -0,0 +1,103 @@
+package Game.AI;
+
+// Queen attacks on boards of up to 11x11 squares, held in two longs: square s is bit s of the low long for
+// s < 64 and bit s - 64 of the high one, squares numbered row by row like Model. Sliding attacks come from
+// precomputed rays: the ray in one direction, cut at the first blocker by removing the ray behind it.
+// Magic tables for 128 squares would be far bigger, and the 8x8 game keeps using MagicBitboard.
+public class RayAttacks {
+
+    public static final int MAX_SIZE = 11;
+    private static final int DIRECTIONS = 8;
+    // The first four directions run towards higher squares, so their first blocker is the lowest bit
+    private static final int[] ROW_STEPS = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final int[] COL_STEPS = {1, -1, 0, 1, -1, 1, 0, -1};
+
+    private static final RayAttacks[] bySize = new RayAttacks[MAX_SIZE + 1];
+
+    private final int size;
+    private final int squares;
+    // Low and high long of the ray from each square in each direction, at (direction * squares + square) * 2
+    private final long[] rays;
+    // Low and high long of the up to 8 squares around each square, at square * 2
+    private final long[] kingNeighbours;
+
+    private RayAttacks(int size) {
+        this.size = size;
+        this.squares = size * size;
+        rays = new long[DIRECTIONS * squares * 2];
+        kingNeighbours = new long[squares * 2];
+
+        for (int square = 0; square < squares; square++) {
+            int row = square / size;
+            int col = square % size;
+            for (int direction = 0; direction < DIRECTIONS; direction++) {
+                int index = (direction * squares + square) * 2;
+                int r = row + ROW_STEPS[direction];
+                int c = col + COL_STEPS[direction];
+                if (inside(r, c)) set(kingNeighbours, square * 2, r * size + c);
+                for (; inside(r, c); r += ROW_STEPS[direction], c += COL_STEPS[direction]) {
+                    set(rays, index, r * size + c);
+                }
+            }
+        }
+    }
+
+    // Tables are built the first time a size is asked for and shared from then on
+    public static synchronized RayAttacks forSize(int size) {
+        if (size < 2 || size > MAX_SIZE) throw new IllegalArgumentException("Board size must be 2 to " + MAX_SIZE);
+        if (bySize[size] == null) bySize[size] = new RayAttacks(size);
+        return bySize[size];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // Empty squares a queen on square reaches, written to attacks[0] (low) and attacks[1] (high).
+    // Like MagicBitboard, occupied squares are never part of the result
+    public void queenAttacks(int square, long occupiedLow, long occupiedHigh, long[] attacks) {
+        long low = 0;
+        long high = 0;
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            int index = (direction * squares + square) * 2;
+            long rayLow = rays[index];
+            long rayHigh = rays[index + 1];
+            long blockersLow = rayLow & occupiedLow;
+            long blockersHigh = rayHigh & occupiedHigh;
+
+            if ((blockersLow | blockersHigh) != 0) {
+                int blocker;
+                if (direction < 4) {
+                    blocker = blockersLow != 0 ? Long.numberOfTrailingZeros(blockersLow)
+                            : 64 + Long.numberOfTrailingZeros(blockersHigh);
+                } else {
+                    blocker = blockersHigh != 0 ? 127 - Long.numberOfLeadingZeros(blockersHigh)
+                            : 63 - Long.numberOfLeadingZeros(blockersLow);
+                }
+                int behind = (direction * squares + blocker) * 2;
+                rayLow ^= rays[behind];
+                rayHigh ^= rays[behind + 1];
+            }
+            low |= rayLow;
+            high |= rayHigh;
+        }
+        attacks[0] = low & ~occupiedLow;
+        attacks[1] = high & ~occupiedHigh;
+    }
+
+    public long kingNeighboursLow(int square) {
+        return kingNeighbours[square * 2];
+    }
+
+    public long kingNeighboursHigh(int square) {
+        return kingNeighbours[square * 2 + 1];
+    }
+
+    private boolean inside(int row, int col) {
+        return row >= 0 && row < size && col >= 0 && col < size;
+    }
+
+    private static void set(long[] table, int index, int square) {
+        table[index + (square >>> 6)] |= 1L << square;
+    }
+}
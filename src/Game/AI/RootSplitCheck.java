@@ -0,0 +1,58 @@
+package Game.AI;
+
+import Game.Model;
+
+// Checks the parallel root split against plain single threaded alpha-beta on the Positions suite. With
+// reductions and the beam off both must find the same score, and the turn the root split picks must be
+// worth that score, whatever order the tasks finish in. Exits with status 1 on any disagreement.
+// Run it with several cores, e.g. java -XX:ActiveProcessorCount=4 Game.AI.RootSplitCheck 3 10
+// Usage: RootSplitCheck [depth] [runs per position]
+public class RootSplitCheck {
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        SearchOptions options = Minimax.getOptions();
+        options.verbose = false;
+        options.lateMoveReductions = false;
+        options.beamWidth = 0;
+
+        int wrong = 0;
+        for (String name : Positions.SUITE) {
+            Model model = Positions.get(name);
+            int expected = plainScore(model, depth, 0, true);
+
+            for (int run = 0; run < runs; run++) {
+                options.principalVariationSearch = true;
+                options.useHashTable = true;
+                Minimax.getTable().clear();
+                MoveResult result = Minimax.rootSplit(model, depth, SearchControl.unlimited(),
+                        -Minimax.INFINITY, Minimax.INFINITY);
+
+                Model child = model.copy();
+                child.playTurn(result.move);
+                int moveScore = plainScore(child, depth - 1, 1, false);
+
+                if (result.score != expected || moveScore != expected) {
+                    wrong++;
+                    System.out.println(String.format("%-12s alpha-beta %d, root split %s %d, worth %d",
+                            name, expected, Move.toString(result.move), result.score, moveScore));
+                }
+            }
+        }
+
+        System.out.println(Positions.SUITE.length + " positions, " + runs + " runs each at depth " + depth
+                + " on " + Runtime.getRuntime().availableProcessors() + " threads, " + wrong + " wrong");
+        if (wrong > 0) System.exit(1);
+    }
+
+    // Full window, no table, no null windows: nothing that depends on other threads or earlier searches
+    private static int plainScore(Model model, int depth, int ply, boolean isMaximizing) {
+        SearchOptions options = Minimax.getOptions();
+        options.principalVariationSearch = false;
+        options.useHashTable = false;
+        SearchContext context = new SearchContext(SearchControl.unlimited());
+        return Minimax.minimaxScore(context, model.copy(), depth, ply, -Minimax.INFINITY, Minimax.INFINITY, isMaximizing);
+    }
+}
@@ -0,0 +1,168 @@
+package Game.AI;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// State owned by a single search thread. Reused between searches, so nothing here
+// is allocated on the search path once the per-ply buffers exist.
+class SearchContext {
+
+    // Nodes are reported to the shared control in batches to keep the atomic off the hot path
+    private static final int NODE_BATCH = 1024;
+
+    private static final ThreadLocal<SearchContext> threadContext = ThreadLocal.withInitial(() -> new SearchContext(null));
+
+    SearchControl control;
+    // Shared best score of the root split this thread is working for, or null
+    AtomicInteger rootAlpha;
+    // Best turn found at ply 0 by the current iteration
+    int rootBestMove;
+    // Lazy SMP helpers perturb their move order so they don't all walk the same tree; 0 keeps it deterministic
+    private long orderJitter;
+    // Helpers that can't go a ply deeper than the main thread skip the hash move's head start at the root,
+    // so they open with a different root move instead of repeating its search
+    boolean rootHashMoveLast;
+    private int pendingNodes;
+    private int pendingCutoffs;
+    private int pendingFirstMoveCutoffs;
+
+    // Queen move buffers per ply, allocated the first time a ply is reached
+    private final int[][] queenMoves = new int[Minimax.MAX_DEPTH + 1][];
+    private final int[][] queenOrderScores = new int[Minimax.MAX_DEPTH + 1][];
+    // Wall squares of the queen moved at each ply, a queen reaches at most 27 squares
+    private final int[][] walls = new int[Minimax.MAX_DEPTH + 1][27];
+    private final int[][] wallOrderScores = new int[Minimax.MAX_DEPTH + 1][27];
+    // Best wall found by the last wall search at each ply, so the queen move above can report the whole turn
+    final int[] bestWalls = new int[Minimax.MAX_DEPTH + 1];
+
+    // Two most recent queen moves per ply that caused a cutoff, packed as Move.of(from, to, 0)
+    final int[][] queenKillers = new int[Minimax.MAX_DEPTH + 1][2];
+    // Two most recent wall squares per ply that caused a cutoff, -1 when empty
+    final int[][] wallKillers = new int[Minimax.MAX_DEPTH + 1][2];
+    // Cutoff history of queen moves, indexed by (from, to), and of walls, indexed by (queen square, wall)
+    final int[] queenHistory = new int[1 << 12];
+    final int[] wallHistory = new int[1 << 12];
+
+    SearchContext(SearchControl control) {
+        this.control = control;
+        for (int[] plyKillers : wallKillers) {
+            Arrays.fill(plyKillers, -1);
+        }
+    }
+
+    // The context of the calling thread, reused by every search that runs on it
+    static SearchContext current() {
+        return threadContext.get();
+    }
+
+    void setOrderJitter(long seed) {
+        orderJitter = seed;
+    }
+
+    // Small random tie breaker for move ordering, 0 unless jitter is enabled
+    int nextJitter() {
+        if (orderJitter == 0) return 0;
+        orderJitter ^= orderJitter << 13;
+        orderJitter ^= orderJitter >>> 7;
+        orderJitter ^= orderJitter << 17;
+        return (int) orderJitter & 15;
+    }
+
+    // Other root tasks may have raised the root bound since this one started. Up to ply 1 a full window's
+    // alpha is the root's, so it can be raised to the shared one. Not to beta or past it: a null window,
+    // or a window below the root's best, would then cut on a bound no caller asked about.
+    // Deeper, or outside a root split, alpha is kept
+    int sharedRootAlpha(int ply, int alpha, int beta) {
+        if (ply > 1 || rootAlpha == null) return alpha;
+        int shared = rootAlpha.get();
+        return shared > alpha && shared < beta ? shared : alpha;
+    }
+
+    void reset(SearchControl control, AtomicInteger rootAlpha) {
+        reset(control);
+        this.rootAlpha = rootAlpha;
+    }
+
+    void reset(SearchControl control) {
+        if (this.control != control) {
+            // New search: killers are position specific, history only loses weight
+            for (int ply = 0; ply <= Minimax.MAX_DEPTH; ply++) {
+                Arrays.fill(queenKillers[ply], Move.NONE);
+                Arrays.fill(wallKillers[ply], -1);
+            }
+            for (int i = 0; i < queenHistory.length; i++) {
+                queenHistory[i] >>= 1;
+                wallHistory[i] >>= 1;
+            }
+        }
+        this.control = control;
+        rootAlpha = null;
+        rootBestMove = Move.NONE;
+        orderJitter = 0;
+        rootHashMoveLast = false;
+        pendingNodes = 0;
+        pendingCutoffs = 0;
+        pendingFirstMoveCutoffs = 0;
+    }
+
+    int[] queenMoves(int ply) {
+        int[] buffer = queenMoves[ply];
+        if (buffer == null) {
+            buffer = new int[3 * 27];
+            queenMoves[ply] = buffer;
+        }
+        return buffer;
+    }
+
+    int[] queenOrderScores(int ply) {
+        int[] buffer = queenOrderScores[ply];
+        if (buffer == null) {
+            buffer = new int[3 * 27];
+            queenOrderScores[ply] = buffer;
+        }
+        return buffer;
+    }
+
+    int[] walls(int ply) {
+        return walls[ply];
+    }
+
+    int[] wallOrderScores(int ply) {
+        return wallOrderScores[ply];
+    }
+
+    void recordQueenCutoff(int ply, int queenMove, int depth, int moveIndex) {
+        recordCutoff(queenKillers[ply], queenHistory, queenMove, queenMove, depth, moveIndex);
+    }
+
+    void recordWallCutoff(int ply, int queenSquare, int wall, int depth, int moveIndex) {
+        recordCutoff(wallKillers[ply], wallHistory, wall, queenSquare << 6 | wall, depth, moveIndex);
+    }
+
+    private void recordCutoff(int[] plyKillers, int[] history, int killer, int historyIndex, int depth, int moveIndex) {
+        if (plyKillers[0] != killer) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = killer;
+        }
+        history[historyIndex] = Math.min(history[historyIndex] + depth * depth, 1 << 28);
+
+        pendingCutoffs++;
+        if (moveIndex == 0) pendingFirstMoveCutoffs++;
+    }
+
+    // Counts a node and returns true if the search has to stop
+    boolean visitNode() {
+        if (++pendingNodes >= NODE_BATCH) {
+            flush();
+        }
+        return control.isStopped();
+    }
+
+    void flush() {
+        control.addCutoffs(pendingCutoffs, pendingFirstMoveCutoffs);
+        control.addNodes(pendingNodes);
+        pendingNodes = 0;
+        pendingCutoffs = 0;
+        pendingFirstMoveCutoffs = 0;
+    }
+}
@@ -0,0 +1,85 @@
+package Game.AI;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Limits for one search: a wall-clock deadline, an optional node budget and a stop flag.
+// Shared by all threads working on the same search.
+public class SearchControl {
+
+    // Not final so a pondering search can start its real clock once the predicted move is played
+    private volatile long startTime;
+    private volatile long deadline;
+    private volatile long nodeLimit;
+    private final AtomicLong nodes = new AtomicLong();
+    private final AtomicLong cutoffs = new AtomicLong();
+    private final AtomicLong firstMoveCutoffs = new AtomicLong();
+    private volatile boolean stopped;
+
+    private SearchControl(long timeBudgetMillis, long nodeLimit) {
+        this.startTime = System.nanoTime();
+        this.deadline = timeBudgetMillis > 0 ? startTime + timeBudgetMillis * 1_000_000L : Long.MAX_VALUE;
+        this.nodeLimit = nodeLimit > 0 ? nodeLimit : Long.MAX_VALUE;
+    }
+
+    public static SearchControl unlimited() {
+        return new SearchControl(0, 0);
+    }
+
+    // A budget of 0 means no limit for that resource
+    public static SearchControl withBudget(long timeBudgetMillis, long nodeLimit) {
+        return new SearchControl(timeBudgetMillis, nodeLimit);
+    }
+
+    // Restarts the budget from now, keeping the search and everything it found so far
+    public void startClock(long timeBudgetMillis, long nodeLimit) {
+        long now = System.nanoTime();
+        this.deadline = timeBudgetMillis > 0 ? now + timeBudgetMillis * 1_000_000L : Long.MAX_VALUE;
+        this.startTime = now;
+        this.nodeLimit = nodeLimit > 0 ? nodes.get() + nodeLimit : Long.MAX_VALUE;
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public long getNodes() {
+        return nodes.get();
+    }
+
+    public long getCutoffs() {
+        return cutoffs.get();
+    }
+
+    // Share of beta cutoffs caused by the first turn tried, a measure of move ordering quality
+    public double getFirstMoveCutoffRate() {
+        long total = cutoffs.get();
+        return total == 0 ? 0 : (double) firstMoveCutoffs.get() / total;
+    }
+
+    public long elapsedMillis() {
+        return (System.nanoTime() - startTime) / 1_000_000L;
+    }
+
+    // True once more than the given fraction of the time budget is used up
+    public boolean isPastFraction(double fraction) {
+        if (deadline == Long.MAX_VALUE) return false;
+        return System.nanoTime() - startTime > (deadline - startTime) * fraction;
+    }
+
+    void addCutoffs(long count, long firstMoveCount) {
+        if (count == 0) return;
+        cutoffs.addAndGet(count);
+        firstMoveCutoffs.addAndGet(firstMoveCount);
+    }
+
+    void addNodes(long count) {
+        long total = nodes.addAndGet(count);
+        if (total >= nodeLimit || System.nanoTime() >= deadline) {
+            stopped = true;
+        }
+    }
+}
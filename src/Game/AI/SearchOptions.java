@@ -0,0 +1,46 @@
+package Game.AI;
+
+public class SearchOptions {
+
+    public enum Parallelism {
+        // One task per root turn, sharing the best root score
+        ROOT_SPLIT,
+        // Every thread runs its own iterative deepening, sharing only the transposition table
+        LAZY_SMP
+    }
+
+    // Transposition table size in megabytes, rounded down to a power of two number of entries
+    public int hashSizeMb = 64;
+    public boolean useHashTable = true;
+    // Keep the table in direct memory instead of the Java heap, for tables of several gigabytes
+    public boolean offHeapHashTable = false;
+    // Touch every page of an off-heap table when it is created instead of during the first searches
+    public boolean prefaultHashTable = false;
+
+    public Parallelism parallelism = Parallelism.ROOT_SPLIT;
+
+    // Null window searches for every turn after the first, re-searched only when they beat the best so far
+    public boolean principalVariationSearch = true;
+    // Half width of the root window around the previous iteration's score, 0 searches every iteration with a full window
+    public int aspirationWindow = 12;
+
+    // Late move reductions: queen moves ordered after the first lmrFullDepthTurns are searched one turn shallower
+    // (two after four times as many) with a null window, and again at full depth only if they look better
+    public boolean lateMoveReductions = true;
+    public int lmrFullDepthTurns = 16;
+    // When positive, nodes below the root search only the beamWidth queen moves that evaluate best right after
+    // the move. Cuts the branching factor by an order of magnitude, but can miss moves
+    public int beamWidth = 0;
+
+    // Score positions where the two sides can no longer reach each other exactly, by counting filling moves
+    public boolean endgameSolver = true;
+
+    // Print time, nodes and the chosen move after every search. Off for library use, turned on with
+    // -Dqueens.verbose=true or the game's --verbose flag
+    public static final String VERBOSE_PROPERTY = "queens.verbose";
+    public boolean verbose = Boolean.getBoolean(VERBOSE_PROPERTY);
+
+    // TerritoryEvaluator is the stronger one, MobilityEvaluator the original neighbour count
+    public Evaluator evaluator = new TerritoryEvaluator();
+
+}
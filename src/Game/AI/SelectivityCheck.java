@@ -0,0 +1,72 @@
+package Game.AI;
+
+import Game.Model;
+
+// Compares the selective search (late move reductions, queen-move beam) against the full-width search on
+// the Positions suite, so a pruning setting can be checked for how often it changes the chosen turn.
+// Usage: SelectivityCheck <depth> [beam width] [LMR full-depth turns]
+public class SelectivityCheck {
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: SelectivityCheck <depth> [beam width] [LMR full-depth turns]");
+            return;
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        SearchOptions options = Minimax.getOptions();
+        int beamWidth = args.length > 1 ? Integer.parseInt(args[1]) : options.beamWidth;
+        int fullDepthTurns = args.length > 2 ? Integer.parseInt(args[2]) : options.lmrFullDepthTurns;
+        boolean verbose = options.verbose;
+        options.verbose = false;
+
+        int agreements = 0;
+        long fullNodes = 0;
+        long selectiveNodes = 0;
+
+        for (String name : Positions.SUITE) {
+            Model model = Positions.get(name);
+
+            options.lateMoveReductions = false;
+            options.beamWidth = 0;
+            Result full = run(model, depth);
+
+            options.lateMoveReductions = true;
+            options.lmrFullDepthTurns = fullDepthTurns;
+            options.beamWidth = beamWidth;
+            Result selective = run(model, depth);
+
+            boolean agree = full.result.move == selective.result.move;
+            if (agree) agreements++;
+            fullNodes += full.nodes;
+            selectiveNodes += selective.nodes;
+
+            System.out.println(String.format("%-12s full %s %d (%d nodes)  selective %s %d (%d nodes)%s",
+                    name, Move.toString(full.result.move), full.result.score, full.nodes,
+                    Move.toString(selective.result.move), selective.result.score, selective.nodes,
+                    agree ? "" : "  DIFFERENT"));
+        }
+
+        System.out.println(String.format("Same turn in %d/%d positions, %.1f%% of the full-width nodes",
+                agreements, Positions.SUITE.length, 100.0 * selectiveNodes / Math.max(1, fullNodes)));
+        options.verbose = verbose;
+    }
+
+    private static Result run(Model model, int depth) {
+        // Start each search from an empty table so neither run benefits from the other
+        Minimax.getTable().clear();
+        SearchControl control = SearchControl.unlimited();
+        MoveResult result = Minimax.rootSplit(model, depth, control, -Minimax.INFINITY, Minimax.INFINITY);
+        return new Result(result, control.getNodes());
+    }
+
+    private static class Result {
+        final MoveResult result;
+        final long nodes;
+
+        Result(MoveResult result, long nodes) {
+            this.result = result;
+            this.nodes = nodes;
+        }
+    }
+}
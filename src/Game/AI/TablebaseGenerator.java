@@ -0,0 +1,109 @@
+package Game.AI;
+
+import Game.Constants;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Writes the FillingTablebase: every king-connected region of 2 to maxSquares squares that fits on the
+// board, one entry per shape up to symmetry, with the filling moves of a queen on each of its squares.
+// Usage: TablebaseGenerator [max squares] [file]
+public class TablebaseGenerator {
+
+    private static final int DEFAULT_MAX_SQUARES = 9;
+    // The table is kept at most half full so probes stay short
+    private static final int LOAD_FACTOR_INVERSE = 2;
+
+    public static void main(String[] args) throws IOException {
+        int maxSquares = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAX_SQUARES;
+        Path path = Paths.get(args.length > 1 ? args[1] : Constants.TABLEBASE_FILE);
+
+        long startTime = System.nanoTime();
+        List<Long> shapes = enumerateShapes(maxSquares);
+        write(path, maxSquares, shapes);
+
+        System.out.println(String.format("%d shapes up to %d squares written to %s in %.1f s",
+                shapes.size(), maxSquares, path, (System.nanoTime() - startTime) / 1e9));
+    }
+
+    // Canonical shapes of 2 to maxSquares squares, grown one king step at a time from a single square
+    static List<Long> enumerateShapes(int maxSquares) {
+        List<Long> shapes = new ArrayList<>();
+        Set<Long> level = new HashSet<>();
+        level.add(1L);
+
+        for (int size = 2; size <= maxSquares; size++) {
+            Set<Long> next = new HashSet<>();
+            for (long shape : level) {
+                // Also grow copies moved off row 0 and column 0 where there is room, so shapes can
+                // grow up and left as well. The unmoved shape keeps the room on the other side
+                boolean rowRoom = (shape & 0xFF00000000000000L) == 0;
+                boolean colRoom = (shape & 0x8080808080808080L) == 0;
+                grow(shape, next);
+                if (rowRoom) grow(shape << 8, next);
+                if (colRoom) grow(shape << 1, next);
+                if (rowRoom && colRoom) grow(shape << 9, next);
+            }
+            shapes.addAll(next);
+            level = next;
+        }
+        return shapes;
+    }
+
+    private static void grow(long placed, Set<Long> shapes) {
+        long growth = BitboardFill.kingTargets(placed) & ~placed;
+        for (; growth != 0; growth &= growth - 1) {
+            shapes.add(FillingTablebase.canonical(placed | (growth & -growth)));
+        }
+    }
+
+    private static void write(Path path, int maxSquares, List<Long> shapes) throws IOException {
+        int slotCount = Integer.highestOneBit(Math.max(1, shapes.size() * LOAD_FACTOR_INVERSE - 1)) << 1;
+        int slotBits = Integer.numberOfTrailingZeros(slotCount);
+        int valueCount = 0;
+        for (long shape : shapes) valueCount += Long.bitCount(shape);
+
+        ByteBuffer buffer = ByteBuffer.allocate(FillingTablebase.HEADER_BYTES
+                + slotCount * FillingTablebase.SLOT_BYTES + valueCount);
+        buffer.putInt(FillingTablebase.MAGIC)
+                .putInt(FillingTablebase.VERSION)
+                .putInt(maxSquares)
+                .putInt(slotCount)
+                .putInt(valueCount);
+
+        int valuesStart = FillingTablebase.HEADER_BYTES + slotCount * FillingTablebase.SLOT_BYTES;
+        FillingSolver solver = new FillingSolver(null);
+        int offset = 0;
+
+        for (long shape : shapes) {
+            int slot = FillingTablebase.slot(shape, slotBits);
+            while (buffer.getLong(FillingTablebase.HEADER_BYTES + slot * FillingTablebase.SLOT_BYTES) != 0) {
+                slot = (slot + 1) & (slotCount - 1);
+            }
+            int position = FillingTablebase.HEADER_BYTES + slot * FillingTablebase.SLOT_BYTES;
+            buffer.putLong(position, shape);
+            buffer.putInt(position + Long.BYTES, offset);
+
+            for (long queens = shape; queens != 0; queens &= queens - 1) {
+                long queen = queens & -queens;
+                int moves = solver.solve(queen, shape & ~queen);
+                if (moves == FillingSolver.UNSOLVED) throw new IllegalStateException("Region too large to solve");
+                buffer.put(valuesStart + offset++, (byte) moves);
+            }
+        }
+
+        buffer.rewind();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+}
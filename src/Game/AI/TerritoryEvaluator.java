@@ -0,0 +1,51 @@
+package Game.AI;
+
+import Game.Model;
+
+// Scores the empty squares each side reaches first, by queen moves and by king steps.
+// Distances are computed for all squares at once: every round grows both sides' reached sets by one move.
+public class TerritoryEvaluator implements Evaluator {
+
+    private static final int QUEEN_WEIGHT = 3;
+    private static final int KING_WEIGHT = 1;
+
+    @Override
+    public int evaluate(Model model) {
+        long white = model.getWhiteQueens();
+        long black = model.getBlackQueens();
+        long empty = ~model.getOccupancy();
+
+        return QUEEN_WEIGHT * territory(white, black, empty, true)
+                + KING_WEIGHT * territory(white, black, empty, false);
+    }
+
+    // Squares black reaches in fewer moves than white, minus the reverse. Squares reached at the same distance count for nobody
+    static int territory(long white, long black, long empty, boolean queenMoves) {
+        long whiteReached = 0;
+        long blackReached = 0;
+        long whiteOwned = 0;
+        long blackOwned = 0;
+        long whiteFrontier = white;
+        long blackFrontier = black;
+
+        while ((whiteFrontier | blackFrontier) != 0) {
+            long whiteNext = step(whiteFrontier, empty, queenMoves) & ~whiteReached;
+            long blackNext = step(blackFrontier, empty, queenMoves) & ~blackReached;
+
+            whiteOwned |= whiteNext & ~blackReached & ~blackNext;
+            blackOwned |= blackNext & ~whiteReached & ~whiteNext;
+
+            whiteReached |= whiteNext;
+            blackReached |= blackNext;
+            whiteFrontier = whiteNext;
+            blackFrontier = blackNext;
+        }
+
+        return Long.bitCount(blackOwned) - Long.bitCount(whiteOwned);
+    }
+
+    private static long step(long frontier, long empty, boolean queenMoves) {
+        if (frontier == 0) return 0;
+        return queenMoves ? BitboardFill.queenTargets(frontier, empty) : BitboardFill.kingTargets(frontier) & empty;
+    }
+}
@@ -0,0 +1,60 @@
+package Game.AI;
+
+// Cache of search results keyed by position hash, shared by all search threads without locking.
+// Entries are packed into a long: score (32 bits) | move (18) | depth (8) | bound (2) | generation (4).
+// Implementations store hash XOR entry next to each entry, so a slot read while another thread is
+// halfway through writing it fails verification and is treated as a miss.
+public interface TranspositionTable {
+
+    int EXACT = 1;
+    int LOWER_BOUND = 2; // score >= stored score (fail high)
+    int UPPER_BOUND = 3; // score <= stored score (fail low)
+
+    int MOVE_SHIFT = 32;
+    int DEPTH_SHIFT = 50;
+    int BOUND_SHIFT = 58;
+    int GENERATION_SHIFT = 60;
+
+    int getSizeMb();
+
+    // Number of entries
+    long capacity();
+
+    // Called once per root search so entries from older searches get replaced first
+    void newSearch();
+
+    void clear();
+
+    // Returns the packed entry for this position, or 0 if there is none
+    long probe(long hash);
+
+    void store(long hash, int depth, int bound, int score, int move);
+
+    static long pack(int depth, int bound, int score, int move, int generation) {
+        return (score & 0xFFFFFFFFL)
+                | ((long) move << MOVE_SHIFT)
+                | ((long) Math.min(depth, 255) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) generation << GENERATION_SHIFT);
+    }
+
+    static int score(long entry) {
+        return (int) entry;
+    }
+
+    static int move(long entry) {
+        return (int) (entry >>> MOVE_SHIFT) & 0x3FFFF;
+    }
+
+    static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    static int bound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 3;
+    }
+
+    static int generation(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & 15;
+    }
+}
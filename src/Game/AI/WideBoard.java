@@ -0,0 +1,243 @@
+package Game.AI;
+
+import Game.Constants;
+
+// Amazons on boards up to 11x11, the standard game being 10x10 with 4 queens a side. Every set of squares
+// is a pair of longs, low and high, and moves come from RayAttacks. Model stays the 8x8 board of the UI and
+// the engines; this is the board for sizes that don't fit in one long.
+// Turns are packed like Move but with 7 bits per square.
+public class WideBoard {
+
+    public static final int STANDARD_SIZE = 10;
+    // a4, d1, g1, j4 for white and a7, d10, g10, j7 for black, with rank 1 as row 0
+    private static final int[] STANDARD_WHITE = {30, 3, 6, 39};
+    private static final int[] STANDARD_BLACK = {60, 93, 96, 69};
+
+    private static final int SQUARE_BITS = 7;
+    private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+
+    private final RayAttacks attacks;
+    private final int size;
+    private final int[] whiteQueenSquares;
+    private final int[] blackQueenSquares;
+    // Scratch for queen attacks, a board is used by one thread at a time like Model
+    private final long[] attackScratch = new long[2];
+    private final long[] wallScratch = new long[2];
+
+    private long whiteLow, whiteHigh;
+    private long blackLow, blackHigh;
+    private long wallLow, wallHigh;
+    private int currentPlayer = Constants.WHITE;
+
+    private WideBoard(int size, int[] whiteQueens, int[] blackQueens) {
+        this.attacks = RayAttacks.forSize(size);
+        this.size = size;
+        this.whiteQueenSquares = whiteQueens.clone();
+        this.blackQueenSquares = blackQueens.clone();
+        for (int square : whiteQueens) {
+            checkEmpty(square);
+            if (square < 64) whiteLow |= 1L << square;
+            else whiteHigh |= 1L << square;
+        }
+        for (int square : blackQueens) {
+            checkEmpty(square);
+            if (square < 64) blackLow |= 1L << square;
+            else blackHigh |= 1L << square;
+        }
+    }
+
+    public static WideBoard standard() {
+        return new WideBoard(STANDARD_SIZE, STANDARD_WHITE, STANDARD_BLACK);
+    }
+
+    // Any size and number of queens, white to move
+    public static WideBoard of(int size, int[] whiteQueens, int[] blackQueens) {
+        return new WideBoard(size, whiteQueens, blackQueens);
+    }
+
+    public WideBoard copy() {
+        WideBoard copy = new WideBoard(size, whiteQueenSquares, blackQueenSquares);
+        copy.wallLow = wallLow;
+        copy.wallHigh = wallHigh;
+        copy.currentPlayer = currentPlayer;
+        return copy;
+    }
+
+    private void checkEmpty(int square) {
+        if (square < 0 || square >= size * size) throw new IllegalArgumentException("No square " + square);
+        if (getPiece(square) != Constants.EMPTY) throw new IllegalArgumentException("Square " + square + " taken twice");
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    // Upper bound on turns in any position, for sizing the buffer of generateTurns
+    public int maxTurns() {
+        int reach = 4 * (size - 1);
+        return Math.max(whiteQueenSquares.length, blackQueenSquares.length) * reach * reach;
+    }
+
+    public int getPiece(int square) {
+        long bit = 1L << square;
+        boolean high = square >= 64;
+        if (((high ? whiteHigh : whiteLow) & bit) != 0) return Constants.WHITE;
+        if (((high ? blackHigh : blackLow) & bit) != 0) return Constants.BLACK;
+        if (((high ? wallHigh : wallLow) & bit) != 0) return Constants.WALL;
+        return Constants.EMPTY;
+    }
+
+    public static int turn(int from, int to, int wall) {
+        return from | (to << SQUARE_BITS) | (wall << 2 * SQUARE_BITS);
+    }
+
+    public static int from(int turn) {
+        return turn & SQUARE_MASK;
+    }
+
+    public static int to(int turn) {
+        return (turn >>> SQUARE_BITS) & SQUARE_MASK;
+    }
+
+    public static int wall(int turn) {
+        return (turn >>> 2 * SQUARE_BITS) & SQUARE_MASK;
+    }
+
+    // Writes every (queen move, wall) turn of the side to move into buffer and returns how many there are
+    public int generateTurns(int[] buffer) {
+        int[] queens = currentPlayer == Constants.WHITE ? whiteQueenSquares : blackQueenSquares;
+        long occupiedLow = whiteLow | blackLow | wallLow;
+        long occupiedHigh = whiteHigh | blackHigh | wallHigh;
+
+        int k = 0;
+        for (int from : queens) {
+            attacks.queenAttacks(from, occupiedLow, occupiedHigh, attackScratch);
+            long targetsLow = attackScratch[0];
+            long targetsHigh = attackScratch[1];
+            // The wall is shot from the new square, with the old square already vacated
+            long vacatedLow = from < 64 ? occupiedLow & ~(1L << from) : occupiedLow;
+            long vacatedHigh = from < 64 ? occupiedHigh : occupiedHigh & ~(1L << from);
+
+            for (; targetsLow != 0; targetsLow &= targetsLow - 1) {
+                int to = Long.numberOfTrailingZeros(targetsLow);
+                k = addWalls(from, to, vacatedLow | (1L << to), vacatedHigh, buffer, k);
+            }
+            for (; targetsHigh != 0; targetsHigh &= targetsHigh - 1) {
+                int to = 64 + Long.numberOfTrailingZeros(targetsHigh);
+                k = addWalls(from, to, vacatedLow, vacatedHigh | (1L << to), buffer, k);
+            }
+        }
+        return k;
+    }
+
+    private int addWalls(int from, int to, long occupiedLow, long occupiedHigh, int[] buffer, int k) {
+        attacks.queenAttacks(to, occupiedLow, occupiedHigh, wallScratch);
+        for (long walls = wallScratch[0]; walls != 0; walls &= walls - 1) {
+            buffer[k++] = turn(from, to, Long.numberOfTrailingZeros(walls));
+        }
+        for (long walls = wallScratch[1]; walls != 0; walls &= walls - 1) {
+            buffer[k++] = turn(from, to, 64 + Long.numberOfTrailingZeros(walls));
+        }
+        return k;
+    }
+
+    public void playTurn(int turn) {
+        moveQueen(from(turn), to(turn));
+        toggleWall(wall(turn));
+        currentPlayer = currentPlayer == Constants.WHITE ? Constants.BLACK : Constants.WHITE;
+    }
+
+    public void undoTurn(int turn) {
+        currentPlayer = currentPlayer == Constants.WHITE ? Constants.BLACK : Constants.WHITE;
+        toggleWall(wall(turn));
+        moveQueen(to(turn), from(turn));
+    }
+
+    private void moveQueen(int from, int to) {
+        long fromLow = from < 64 ? 1L << from : 0;
+        long fromHigh = from < 64 ? 0 : 1L << from;
+        long toLow = to < 64 ? 1L << to : 0;
+        long toHigh = to < 64 ? 0 : 1L << to;
+
+        int[] squares;
+        if (currentPlayer == Constants.WHITE) {
+            whiteLow ^= fromLow | toLow;
+            whiteHigh ^= fromHigh | toHigh;
+            squares = whiteQueenSquares;
+        } else {
+            blackLow ^= fromLow | toLow;
+            blackHigh ^= fromHigh | toHigh;
+            squares = blackQueenSquares;
+        }
+        for (int i = 0; i < squares.length; i++) {
+            if (squares[i] == from) {
+                squares[i] = to;
+                break;
+            }
+        }
+    }
+
+    private void toggleWall(int square) {
+        if (square < 64) wallLow ^= 1L << square;
+        else wallHigh ^= 1L << square;
+    }
+
+    public boolean isGameOver() {
+        return !hasMoves(whiteQueenSquares) || !hasMoves(blackQueenSquares);
+    }
+
+    // Same rule as Model: the side to move loses when it can't move, EMPTY while the game is still on
+    public int getWinner() {
+        int opponent = currentPlayer == Constants.WHITE ? Constants.BLACK : Constants.WHITE;
+        boolean whiteToMove = currentPlayer == Constants.WHITE;
+        if (!hasMoves(whiteToMove ? whiteQueenSquares : blackQueenSquares)) return opponent;
+        if (!hasMoves(whiteToMove ? blackQueenSquares : whiteQueenSquares)) return currentPlayer;
+        return Constants.EMPTY;
+    }
+
+    // A queen can move iff one of its neighbours is empty
+    private boolean hasMoves(int[] queens) {
+        long emptyLow = ~(whiteLow | blackLow | wallLow);
+        long emptyHigh = ~(whiteHigh | blackHigh | wallHigh);
+        for (int queen : queens) {
+            if ((attacks.kingNeighboursLow(queen) & emptyLow) != 0
+                    || (attacks.kingNeighboursHigh(queen) & emptyHigh) != 0) return true;
+        }
+        return false;
+    }
+
+    // Leaf turns to depth, with the last ply counted without being played
+    public long perft(int depth) {
+        if (depth == 0) return 1;
+        return perft(depth, new int[depth][maxTurns()]);
+    }
+
+    private long perft(int depth, int[][] buffers) {
+        int[] turns = buffers[depth - 1];
+        int count = generateTurns(turns);
+        if (depth == 1) return count;
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            playTurn(turns[i]);
+            nodes += perft(depth - 1, buffers);
+            undoTurn(turns[i]);
+        }
+        return nodes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder board = new StringBuilder();
+        for (int square = 0; square < size * size; square++) {
+            int piece = getPiece(square);
+            board.append(piece == Constants.WHITE ? 'W' : piece == Constants.BLACK ? 'B' : piece == Constants.WALL ? '#' : '.');
+            if (square % size == size - 1) board.append('\n');
+        }
+        return board.toString();
+    }
+}
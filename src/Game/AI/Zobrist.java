@@ -0,0 +1,46 @@
+package Game.AI;
+
+import java.util.Random;
+
+public class Zobrist {
+
+    // Fixed seed so hashes are reproducible between runs
+    private static final long SEED = 0x5EED_B10C_0000_0001L;
+
+    public static final long[] WHITE_QUEEN = new long[64];
+    public static final long[] BLACK_QUEEN = new long[64];
+    public static final long[] WALL = new long[64];
+    public static final long BLACK_TO_MOVE;
+    // Set while the queen on the square has moved and its wall is still to be placed
+    public static final long[] WALL_PENDING = new long[64];
+
+    static {
+        Random random = new Random(SEED);
+        for (int square = 0; square < 64; square++) {
+            WHITE_QUEEN[square] = random.nextLong();
+            BLACK_QUEEN[square] = random.nextLong();
+            WALL[square] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+        for (int square = 0; square < 64; square++) {
+            WALL_PENDING[square] = random.nextLong();
+        }
+    }
+
+    public static long hash(long whiteQueens, long blackQueens, long walls, boolean blackToMove) {
+        long hash = blackToMove ? BLACK_TO_MOVE : 0L;
+        hash ^= hashBoard(whiteQueens, WHITE_QUEEN);
+        hash ^= hashBoard(blackQueens, BLACK_QUEEN);
+        hash ^= hashBoard(walls, WALL);
+        return hash;
+    }
+
+    private static long hashBoard(long board, long[] keys) {
+        long hash = 0L;
+        while (board != 0) {
+            hash ^= keys[Long.numberOfTrailingZeros(board)];
+            board &= board - 1;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,100 @@
+package Game;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+// The whole board painted by one component. Board changes repaint just the squares that changed,
+// and Swing clips the paint to them, so a turn costs three squares instead of 64 buttons
+class BoardPanel extends JComponent {
+
+    private static final Font LABEL_FONT = new Font(Font.DIALOG, Font.BOLD, 20);
+
+    private final Model model;
+    private boolean acceptingInput = true;
+
+    BoardPanel(Model model, Controller controller) {
+        this.model = model;
+        setPreferredSize(new Dimension(View.SQUARE_SIZE * Constants.BOARD_SIZE, View.SQUARE_SIZE * Constants.BOARD_SIZE));
+        setOpaque(true);
+        setBackground(Color.LIGHT_GRAY);
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int size = squareSize();
+                int row = e.getY() / size;
+                int col = e.getX() / size;
+                if (acceptingInput && row < Constants.BOARD_SIZE && col < Constants.BOARD_SIZE) {
+                    controller.handleMouseClick(row, col);
+                }
+            }
+        });
+    }
+
+    void repaintSquares(long squares) {
+        int size = squareSize();
+        for (; squares != 0; squares &= squares - 1) {
+            int position = Long.numberOfTrailingZeros(squares);
+            repaint(position % Constants.BOARD_SIZE * size, position / Constants.BOARD_SIZE * size, size, size);
+        }
+    }
+
+    void disableInput() {
+        acceptingInput = false;
+    }
+
+    // Squares stay square, whatever is left over on the right or bottom is background
+    private int squareSize() {
+        return Math.max(1, Math.min(getWidth(), getHeight()) / Constants.BOARD_SIZE);
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics;
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(getBackground());
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        int size = squareSize();
+        // Only the squares overlapping the dirty region
+        int firstRow = Math.max(0, clip.y / size);
+        int lastRow = Math.min(Constants.BOARD_SIZE - 1, (clip.y + clip.height - 1) / size);
+        int firstCol = Math.max(0, clip.x / size);
+        int lastCol = Math.min(Constants.BOARD_SIZE - 1, (clip.x + clip.width - 1) / size);
+
+        g.setFont(LABEL_FONT);
+        FontMetrics metrics = g.getFontMetrics();
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                paintSquare(g, row, col, size, metrics);
+            }
+        }
+    }
+
+    private void paintSquare(Graphics2D g, int row, int col, int size, FontMetrics metrics) {
+        int x = col * size;
+        int y = row * size;
+        int position = row * Constants.BOARD_SIZE + col;
+        int piece = model.getPiece(position);
+        Color background = (row + col) % 2 == 0 ? Color.WHITE : Color.DARK_GRAY;
+
+        if (piece == Constants.WALL) {
+            background = Color.BLACK;
+        }
+        g.setColor(background);
+        g.fillRect(x, y, size, size);
+
+        if (piece == Constants.WHITE || piece == Constants.BLACK) {
+            Image image = QueenImages.get(piece, size);
+            g.drawImage(image, x + (size - image.getWidth(null)) / 2, y + (size - image.getHeight(null)) / 2, null);
+        }
+
+        // Square number, like the button board shows
+        g.setColor(background == Color.WHITE ? Color.BLACK : Color.WHITE);
+        g.drawString(Integer.toString(position), x + 4, y + metrics.getAscent());
+    }
+}
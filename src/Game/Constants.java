@@ -12,12 +12,28 @@ public class Constants {
 
     public static final int SELECTING_START = -1;
     public static final int WALL_PLACING = -2;
+
+    // Thinking budget per AI move, 0 means unlimited
+    public static final long AI_TIME_BUDGET_MILLIS = 3000;
+    public static final long AI_NODE_BUDGET = 0;
+    // Monte Carlo tree search instead of Minimax
+    public static final boolean AI_MONTE_CARLO = false;
+    // Keep searching on the player's time, on the reply the engine expects
+    public static final boolean AI_PONDER = true;
+    // Paint the board in a single component rather than a grid of buttons, fast enough to follow engine games
+    public static final boolean PAINTED_BOARD = true;
+    // Written by Game.AI.TablebaseGenerator, the engine runs without it when the file isn't there
+    public static final String TABLEBASE_FILE = "filling.tb";
+
     public static final int[] POSSIBLE_MOVEMENTS_OFFSETS = {
             -BOARD_SIZE -1, -BOARD_SIZE, -BOARD_SIZE + 1, -1, +1, BOARD_SIZE - 1, BOARD_SIZE, BOARD_SIZE + 1
     };
 
     public static int[][] POSSIBLE_MOVES;
 
+    // Bitboard of the up to 8 squares around each square, without wrapping around the board edges
+    public static final long[] KING_NEIGHBOURS = new long[BOARD_SIZE * BOARD_SIZE];
+
     static {
         POSSIBLE_MOVES = new int[BOARD_SIZE*BOARD_SIZE][8];
 
@@ -28,6 +44,7 @@ public class Constants {
                 int newPos = position + offset;
                 if (Model.isValidMove(position, newPos)) {
                     POSSIBLE_MOVES[position][k++] = newPos;
+                    KING_NEIGHBOURS[position] |= 1L << newPos;
                 }
             }
         }
@@ -1,14 +1,20 @@
 package Game;
 
-import Game.AI.Minimax;
+import Game.AI.AsyncEngine;
+import Game.AI.Engine;
+import Game.AI.Move;
 
-import java.util.Arrays;
+import javax.swing.*;
+import java.util.concurrent.CancellationException;
 
 public class Controller {
 
     private int selectedPosition = -1;
     private int selectionMode = Constants.SELECTING_START;
     private final Model model;
+    private final AsyncEngine engine = new AsyncEngine(Constants.AI_MONTE_CARLO ? Engine.monteCarlo() : Engine.minimax());
+    // Clicks are ignored while the engine is thinking, it is not the player's turn
+    private boolean aiThinking;
 
     public Controller(){
         model = new Model();
@@ -17,6 +23,7 @@ public class Controller {
     }
 
     public void handleMouseClick(int row, int col) {
+        if (aiThinking) return;
         int newPosition = row * Model.BOARD_SIZE + col;
 
         if (selectionMode == Constants.WALL_PLACING) {
@@ -31,10 +38,39 @@ public class Controller {
         }
     }
 
+    // Searches in the background and plays the move on the event thread once the search is done.
+    // Clicks come back however the search ended, failed and cancelled searches included
     public void aiPlay(){
-        short[] bestMove = Minimax.minimax(model, 3);
-        model.movePiece(bestMove[0], bestMove[1]);
-        model.placeWall(bestMove[2]);
+        if (model.isGameOver()) return;
+        aiThinking = true;
+        engine.bestMove(model, Constants.AI_TIME_BUDGET_MILLIS, Constants.AI_NODE_BUDGET)
+                .whenCompleteAsync(this::aiDone, SwingUtilities::invokeLater);
+    }
+
+    // Makes the engine play the best move it has found so far
+    public void stopAi() {
+        engine.stopNow();
+    }
+
+    private void aiDone(short[] bestMove, Throwable error) {
+        aiThinking = false;
+        if (error != null && !(error instanceof CancellationException)) error.printStackTrace();
+        if (error != null || !isLegalTurn(bestMove)) return;
+
+        model.applyTurn(bestMove[0], bestMove[1], bestMove[2]);
+        if (Constants.AI_PONDER && !model.isGameOver()) engine.ponder(model);
+    }
+
+    // A missing or stale move is dropped rather than played onto the board
+    private boolean isLegalTurn(short[] move) {
+        if (move == null || move.length < 3) return false;
+        int[] turns = new int[Model.MAX_TURNS];
+        int count = model.generateTurns(model.getCurrentPlayer(), turns);
+        int turn = Move.of(move[0], move[1], move[2]);
+        for (int i = 0; i < count; i++) {
+            if (turns[i] == turn) return true;
+        }
+        return false;
     }
 
 
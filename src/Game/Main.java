@@ -1,9 +1,14 @@
 package Game;
 
+import Game.AI.Minimax;
+
 import javax.swing.*;
+import java.util.Arrays;
 
 public class Main {
     public static void main(String[] args) {
+        // --verbose prints the engine's statistics after every AI move
+        if (Arrays.asList(args).contains("--verbose")) Minimax.getOptions().verbose = true;
         SwingUtilities.invokeLater(Controller::new);
     }
 
@@ -1,14 +1,18 @@
 package Game;
 
 import Game.AI.MagicBitboard;
+import Game.AI.Move;
+import Game.AI.Zobrist;
 
-import java.io.*;
+import java.io.Serializable;
 import java.util.*;
 
 public class Model implements Serializable {
 
     private List<Observer> observers;
     public static final int BOARD_SIZE = 8;
+    // Upper bound on turns in any position: 3 queens * 27 targets * 27 walls
+    public static final int MAX_TURNS = 3 * 27 * 27;
 
 
     private final short[] blackQueenPositions;
@@ -20,6 +24,19 @@ public class Model implements Serializable {
     private long walls;
     private int currentPlayer = Constants.WHITE;
 
+    // Zobrist hash of the bitboards and side to move, kept up to date on every change
+    private long hash;
+
+    // Terminal state of the position with hash terminalCacheHash
+    private boolean terminalCacheValid;
+    private long terminalCacheHash;
+    private boolean whiteHasMoves;
+    private boolean blackHasMoves;
+
+    // Squares changed since the last notification, and how many beginChange calls are still open
+    private long changedSquares;
+    private int changeDepth;
+
     private int whiteQueenArrayPosition = 0;
     private int blackQueenArrayPosition = 0;
 
@@ -32,6 +49,45 @@ public class Model implements Serializable {
         initializeQueens();
     }
 
+    // Board as 8 rows of '.', 'W', 'B' or '#' (wall), square 0 first. Whitespace is ignored
+    private Model(String board, int currentPlayer) {
+        this.observers = new ArrayList<>();
+
+        blackQueenPositions = new short[3];
+        whiteQueenPositions = new short[3];
+
+        String squares = board.replaceAll("\\s", "");
+        if (squares.length() != BOARD_SIZE * BOARD_SIZE)
+            throw new IllegalArgumentException("Expected " + BOARD_SIZE * BOARD_SIZE + " squares, got " + squares.length());
+
+        for (int position = 0; position < squares.length(); position++) {
+            char square = squares.charAt(position);
+            if (square == 'W') putWhiteQueen(position);
+            else if (square == 'B') putBlackQueen(position);
+            else if (square == '#') setupWalls(new int[]{position});
+            else if (square != '.') throw new IllegalArgumentException("Unknown square '" + square + "'");
+        }
+        if (whiteQueenArrayPosition != 3 || blackQueenArrayPosition != 3)
+            throw new IllegalArgumentException("Each side needs exactly 3 queens");
+
+        if (currentPlayer == Constants.BLACK) {
+            this.currentPlayer = Constants.BLACK;
+            hash ^= Zobrist.BLACK_TO_MOVE;
+        }
+    }
+
+    public static Model fromString(String board, int currentPlayer) {
+        return new Model(board, currentPlayer);
+    }
+
+    private Model(Model source) {
+        this.observers = new ArrayList<>();
+
+        blackQueenPositions = new short[3];
+        whiteQueenPositions = new short[3];
+        source.copyInto(this);
+    }
+
     // Initialize the queens on the board
     private void initializeQueens() {
 
@@ -51,17 +107,20 @@ public class Model implements Serializable {
         if(whiteQueenArrayPosition >= 3) return;
 
         whiteQueens |= (1L << position);
+        hash ^= Zobrist.WHITE_QUEEN[position];
         whiteQueenPositions[whiteQueenArrayPosition++] = (short) position;
     }
 
     private void putBlackQueen(int position){
         if(blackQueenArrayPosition >= 3) return;
         blackQueens |= (1L << position);
+        hash ^= Zobrist.BLACK_QUEEN[position];
         blackQueenPositions[blackQueenArrayPosition++] = (short) position;
     }
 
     private void setupWalls(int[] positions){
         for(int pos : positions) {
+            if (!isWall(pos)) hash ^= Zobrist.WALL[pos];
             walls |= (1L << pos);
         }
     }
@@ -89,38 +148,74 @@ public class Model implements Serializable {
 
 
     public boolean hasMoves(short[] positions){
-        for(int queenPosition : positions) {
-            for(int pos : Constants.POSSIBLE_MOVEMENTS_OFFSETS)
-                    if (isWalkable(queenPosition + pos)) {
-                        return true;
-                    }
-                }
-        return false;
+        long neighbours = 0L;
+        for(int queenPosition : positions)
+            neighbours |= Constants.KING_NEIGHBOURS[queenPosition];
+        return (neighbours & ~getOccupancy()) != 0;
     }
 
     public boolean isGameOver(){
-        boolean hasMovesBlack = hasMoves(blackQueenPositions);
-        boolean hasMovesWhite = hasMoves(whiteQueenPositions);
-        return !hasMovesBlack || !hasMovesWhite;
+        updateTerminalCache();
+        return !whiteHasMoves || !blackHasMoves;
+    }
+
+    // The side to move loses when it can't move. When only the side not to move is stuck, the side to move wins.
+    // Returns EMPTY while the game is still on
+    public int getWinner(){
+        updateTerminalCache();
+        boolean toMoveHasMoves = currentPlayer == Constants.WHITE ? whiteHasMoves : blackHasMoves;
+        boolean otherHasMoves = currentPlayer == Constants.WHITE ? blackHasMoves : whiteHasMoves;
+        int opponent = currentPlayer == Constants.WHITE ? Constants.BLACK : Constants.WHITE;
+
+        if (!toMoveHasMoves) return opponent;
+        if (!otherHasMoves) return currentPlayer;
+        return Constants.EMPTY;
+    }
+
+    // A queen can move iff one of its neighbours is empty, so a position is checked with a handful of ANDs.
+    // The result is kept until the hash changes, since search calls this several times per node
+    private void updateTerminalCache(){
+        if (terminalCacheValid && terminalCacheHash == hash) return;
+
+        long empty = ~getOccupancy();
+        whiteHasMoves = (kingNeighbours(whiteQueens) & empty) != 0;
+        blackHasMoves = (kingNeighbours(blackQueens) & empty) != 0;
+        terminalCacheHash = hash;
+        terminalCacheValid = true;
+    }
+
+    private static long kingNeighbours(long queens){
+        long neighbours = 0L;
+        while (queens != 0) {
+            neighbours |= Constants.KING_NEIGHBOURS[Long.numberOfTrailingZeros(queens)];
+            queens &= queens - 1;
+        }
+        return neighbours;
     }
 
     public int getCurrentPlayer() {
         return currentPlayer;
     }
 
+    public long getHash() {
+        return hash;
+    }
+
     public void movePiece(short oldPosition, short newPosition) {
         if (isWhiteQueen(oldPosition)) {
             whiteQueens &= ~(1L << oldPosition); // Remove from old position
             whiteQueens |= (1L << newPosition); // Add to new position
+            hash ^= Zobrist.WHITE_QUEEN[oldPosition] ^ Zobrist.WHITE_QUEEN[newPosition];
             updateQueenPosition(whiteQueenPositions, oldPosition, newPosition);
 
         } else if (isBlackQueen(oldPosition)) {
             blackQueens &= ~(1L << oldPosition); // Remove from old position
             blackQueens |= (1L << newPosition); // Add to new position
+            hash ^= Zobrist.BLACK_QUEEN[oldPosition] ^ Zobrist.BLACK_QUEEN[newPosition];
             updateQueenPosition(blackQueenPositions, oldPosition, newPosition);
 
         }
-        notifyObservers();
+        changed((1L << oldPosition) | (1L << newPosition));
     }
 
     private void updateQueenPosition(short[] positions, short oldPosition, short newPosition) {
@@ -134,9 +229,10 @@ public class Model implements Serializable {
 
     public void placeWall(int position) {
         walls |= (1L << position);
+        hash ^= Zobrist.WALL[position] ^ Zobrist.BLACK_TO_MOVE;
         currentPlayer = currentPlayer == Constants.WHITE ? Constants.BLACK : Constants.WHITE;
 
-        notifyObservers();
+        changed(1L << position);
     }
 
 
@@ -149,9 +245,10 @@ public class Model implements Serializable {
 
     public void unPlaceWall(int position){
         walls &= ~(1L << position);
+        hash ^= Zobrist.WALL[position] ^ Zobrist.BLACK_TO_MOVE;
         currentPlayer = currentPlayer == Constants.WHITE ? Constants.BLACK : Constants.WHITE;
 
-        notifyObservers();
+        changed(1L << position);
     }
 
 
@@ -237,6 +334,106 @@ public class Model implements Serializable {
     }
 
 
+    // Allocation free variant of generatePossibleMoves + generatePossibleWalls for the search.
+    // Writes every (queen move, wall) turn as a packed Move into buffer and returns how many there are
+    public int generateTurns(int playerColor, int[] buffer) {
+        short[] queensPositions = playerColor == Constants.WHITE ? whiteQueenPositions : blackQueenPositions;
+        long occupancy = getOccupancy();
+
+        int k = 0;
+
+        for (int from : queensPositions) {
+            long queenMoves = MagicBitboard.getQueenAttacks(from, occupancy);
+            while (queenMoves != 0) {
+                int to = Long.numberOfTrailingZeros(queenMoves);
+                queenMoves &= queenMoves - 1;
+
+                // The wall is shot from the new square, with the old square already vacated
+                long wallOccupancy = (occupancy & ~(1L << from)) | (1L << to);
+                long wallMoves = MagicBitboard.getQueenAttacks(to, wallOccupancy);
+                while (wallMoves != 0) {
+                    buffer[k++] = Move.of(from, to, Long.numberOfTrailingZeros(wallMoves));
+                    wallMoves &= wallMoves - 1;
+                }
+            }
+        }
+        return k;
+    }
+
+    // Queen moves only, packed as Move.of(from, to, 0). Returns how many there are
+    public int generateQueenMoves(int playerColor, int[] buffer) {
+        short[] queensPositions = playerColor == Constants.WHITE ? whiteQueenPositions : blackQueenPositions;
+        long occupancy = getOccupancy();
+
+        int k = 0;
+
+        for (int from : queensPositions) {
+            long queenMoves = MagicBitboard.getQueenAttacks(from, occupancy);
+            while (queenMoves != 0) {
+                buffer[k++] = Move.of(from, Long.numberOfTrailingZeros(queenMoves), 0);
+                queenMoves &= queenMoves - 1;
+            }
+        }
+        return k;
+    }
+
+    // Wall squares for the queen that just moved to queenSquare, returns how many there are
+    public int generateWalls(int queenSquare, int[] buffer) {
+        long wallMoves = MagicBitboard.getQueenAttacks(queenSquare, getOccupancy());
+
+        int k = 0;
+        while (wallMoves != 0) {
+            buffer[k++] = Long.numberOfTrailingZeros(wallMoves);
+            wallMoves &= wallMoves - 1;
+        }
+        return k;
+    }
+
+    public void playTurn(int move) {
+        movePiece((short) Move.from(move), (short) Move.to(move));
+        placeWall(Move.wall(move));
+    }
+
+    public void undoTurn(int move) {
+        unPlaceWall(Move.wall(move));
+        movePiece((short) Move.to(move), (short) Move.from(move));
+    }
+
+    // A turn played as two halves, for searching the queen move and the wall separately.
+    // Between them the hash carries the square the wall is shot from, so a half-played turn
+    // never shares a hash with a whole position
+    public void playQueenMove(int from, int to) {
+        movePiece((short) from, (short) to);
+        hash ^= Zobrist.WALL_PENDING[to];
+    }
+
+    public void undoQueenMove(int from, int to) {
+        hash ^= Zobrist.WALL_PENDING[to];
+        movePiece((short) to, (short) from);
+    }
+
+    public void playWall(int queenSquare, int wall) {
+        hash ^= Zobrist.WALL_PENDING[queenSquare];
+        placeWall(wall);
+    }
+
+    public void undoWall(int queenSquare, int wall) {
+        unPlaceWall(wall);
+        hash ^= Zobrist.WALL_PENDING[queenSquare];
+    }
+
+    public long getWhiteQueens() {
+        return whiteQueens;
+    }
+
+    public long getBlackQueens() {
+        return blackQueens;
+    }
+
+    public long getWalls() {
+        return walls;
+    }
+
     public short[] getWhiteQueenPositions() {
         return whiteQueenPositions;
     }
@@ -261,11 +458,42 @@ public class Model implements Serializable {
         observers.addAll(newObservers);
     }
 
-    public void notifyObservers(){
+    // Groups the changes up to the matching commitChange into one notification. Calls can nest
+    public void beginChange() {
+        changeDepth++;
+    }
+
+    public void commitChange() {
+        if (--changeDepth == 0 && changedSquares != 0) {
+            long squares = changedSquares;
+            changedSquares = 0;
+            notifyObservers(squares);
+        }
+    }
+
+    // A whole turn, reported to observers as a single change
+    public void applyTurn(int from, int to, int wall) {
+        beginChange();
+        movePiece((short) from, (short) to);
+        placeWall(wall);
+        commitChange();
+    }
+
+    private void changed(long squares) {
+        // The search moves pieces millions of times on models nobody watches
+        if (observers.isEmpty()) return;
+        changedSquares |= squares;
+        if (changeDepth == 0) {
+            changedSquares = 0;
+            notifyObservers(squares);
+        }
+    }
+
+    public void notifyObservers(long changedSquares){
         if(observers.isEmpty()) return;
 
         for(Observer observer : observers)
-            observer.onBoardChanged();
+            observer.onBoardChanged(changedSquares);
 
         if(isGameOver()) {
             for (Observer observer : observers)
@@ -274,23 +502,37 @@ public class Model implements Serializable {
 
     }
 
-    public Model deepCopy() {
-        try {
-            // Write object to a byte array
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            ObjectOutputStream out = new ObjectOutputStream(bos);
-            out.writeObject(this);
-            out.flush();
-            out.close();
+    // Copies only the game state, the copy starts without observers
+    public Model copy() {
+        return new Model(this);
+    }
+
+    // Overwrites the game state of target with this one, without allocating. Observers are left alone
+    public void copyInto(Model target) {
+        target.whiteQueens = whiteQueens;
+        target.blackQueens = blackQueens;
+        target.walls = walls;
+        target.currentPlayer = currentPlayer;
+        target.hash = hash;
+        target.terminalCacheValid = terminalCacheValid;
+        target.terminalCacheHash = terminalCacheHash;
+        target.whiteHasMoves = whiteHasMoves;
+        target.blackHasMoves = blackHasMoves;
+        target.whiteQueenArrayPosition = whiteQueenArrayPosition;
+        target.blackQueenArrayPosition = blackQueenArrayPosition;
+        System.arraycopy(whiteQueenPositions, 0, target.whiteQueenPositions, 0, whiteQueenPositions.length);
+        System.arraycopy(blackQueenPositions, 0, target.blackQueenPositions, 0, blackQueenPositions.length);
+    }
 
-            // Read object from byte array
-            ByteArrayInputStream bis = new ByteArrayInputStream(bos.toByteArray());
-            ObjectInputStream in = new ObjectInputStream(bis);
-            return (Model) in.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            e.printStackTrace();
-            return null;
+    @Override
+    public String toString() {
+        StringBuilder board = new StringBuilder();
+        for (int position = 0; position < BOARD_SIZE * BOARD_SIZE; position++) {
+            int piece = getPiece(position);
+            board.append(piece == Constants.WHITE ? 'W' : piece == Constants.BLACK ? 'B' : piece == Constants.WALL ? '#' : '.');
+            if (position % BOARD_SIZE == BOARD_SIZE - 1) board.append('\n');
         }
+        return board.toString();
     }
 
     public static boolean isValidMove(int previousPosition, int newPosition) {
@@ -1,7 +1,8 @@
 package Game;
 
 public interface Observer {
-    void onBoardChanged();
+    // changedSquares has a bit set for every square whose piece changed, in Model square order
+    void onBoardChanged(long changedSquares);
     void onGameOver();
 
 
@@ -0,0 +1,55 @@
+package Game;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+
+// Queen images read once from the classpath and kept scaled for the current square size,
+// so drawing a queen never touches the disk or rescales anything
+class QueenImages {
+
+    // Part of the square the queen covers
+    private static final double SCALE = 0.8;
+
+    private static final BufferedImage white = load("white_queen.png");
+    private static final BufferedImage black = load("black_queen.png");
+
+    private static int cachedSize;
+    private static BufferedImage scaledWhite;
+    private static BufferedImage scaledBlack;
+
+    // Only used on the event thread
+    static BufferedImage get(int piece, int squareSize) {
+        if (squareSize != cachedSize) {
+            int size = Math.max(1, (int) (squareSize * SCALE));
+            scaledWhite = scale(white, size);
+            scaledBlack = scale(black, size);
+            cachedSize = squareSize;
+        }
+        return piece == Constants.WHITE ? scaledWhite : scaledBlack;
+    }
+
+    private static BufferedImage load(String name) {
+        try {
+            URL resource = QueenImages.class.getResource("Assets/" + name);
+            // Running from the source tree without the assets on the classpath
+            return resource != null ? ImageIO.read(resource) : ImageIO.read(new File(View.asset_path, name));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read queen image " + name, e);
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image, int size) {
+        BufferedImage scaled = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(image.getScaledInstance(size, size, Image.SCALE_SMOOTH), 0, 0, null);
+        g.dispose();
+        return scaled;
+    }
+}
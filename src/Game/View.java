@@ -2,10 +2,13 @@ package Game;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.KeyEvent;
 
 public class View extends JFrame implements Observer{
 
+    // One of the two is used, depending on Constants.PAINTED_BOARD
     private final JPanel boardPanel;
+    private final BoardPanel paintedBoard;
     private final Model model;
     private final Controller controller;
 
@@ -20,11 +23,20 @@ public class View extends JFrame implements Observer{
         setSize(800, 800);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
-        boardPanel = new JPanel(new GridLayout(Constants.BOARD_SIZE, Constants.BOARD_SIZE));
-        boardPanel.setPreferredSize(new Dimension(800, 800));
-
+        if (Constants.PAINTED_BOARD) {
+            boardPanel = null;
+            paintedBoard = new BoardPanel(model, controller);
+            add(paintedBoard);
+        } else {
+            boardPanel = new JPanel(new GridLayout(Constants.BOARD_SIZE, Constants.BOARD_SIZE));
+            boardPanel.setPreferredSize(new Dimension(800, 800));
+            paintedBoard = null;
+            add(boardPanel);
+        }
 
-        add(boardPanel);
+        // Escape makes the engine move now instead of using up its time
+        getRootPane().registerKeyboardAction(e -> controller.stopAi(),
+                KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), JComponent.WHEN_IN_FOCUSED_WINDOW);
 
         createAndShowGUI();
         updateBoard();
@@ -32,6 +44,12 @@ public class View extends JFrame implements Observer{
     }
 
     private void createAndShowGUI() {
+        if (paintedBoard == null) createButtons();
+        setVisible(true);
+    }
+
+    private void createButtons() {
+        Font font = new JButton().getFont().deriveFont(20f);
         for (int row = 0; row < Constants.BOARD_SIZE; row++) {
             for (int col = 0; col < Constants.BOARD_SIZE; col++) {
                 JButton square = new JButton();
@@ -43,56 +61,51 @@ public class View extends JFrame implements Observer{
                 square.setBorderPainted(false);
                 square.setFocusPainted(false);  // Disable the focus border
                 square.setOpaque(true);
+                square.setFont(font);
+                square.setText(row * Constants.BOARD_SIZE + col + " ");
+                square.setHorizontalAlignment(SwingConstants.CENTER);
+                square.setVerticalAlignment(SwingConstants.CENTER);
 
                 boardPanel.add(square);
             }
         }
-
-        setVisible(true);
     }
 
     private void updateBoard() {
-        for (int row = 0; row < Constants.BOARD_SIZE; row++) {
-            for (int col = 0; col < Constants.BOARD_SIZE; col++) {
-                JButton square = (JButton) boardPanel.getComponent(row * Constants.BOARD_SIZE + col);
-                // Clear the previous icon
-                square.setIcon(null);
-                int position = row * Constants.BOARD_SIZE + col;
-                int piece = model.getPiece(position);
-                if (piece == Constants.EMPTY){
-                    square.setBackground((row + col) % 2 == 0 ? Color.WHITE : Color.DARK_GRAY);
-                }
-                else if (piece == Constants.WALL) {
-                    square.setBackground(Color.BLACK);
-                } else {
-                    ImageIcon pieceIcon = getImageIcon(piece, square);
-                    // Set the icon to the button
-                    square.setIcon(pieceIcon);
-                    square.setHorizontalAlignment(SwingConstants.CENTER);
-                    square.setVerticalAlignment(SwingConstants.CENTER);
-                }
-                square.setText(row * Constants.BOARD_SIZE + col + " ");
-                Font currentFont = square.getFont();
-                Font newFont = currentFont.deriveFont(currentFont.getStyle(), 20f); // 20f is the new font size
-                square.setFont(newFont);            }
-        }
-        boardPanel.revalidate();
-        boardPanel.repaint();
+        updateSquares(-1L);
     }
 
-    private static ImageIcon getImageIcon(int piece, JButton square) {
-        String imagePath = piece == Constants.WHITE ? asset_path+"/white_queen.png" : asset_path+"/black_queen.png";
-        ImageIcon pieceIcon = new ImageIcon(imagePath);
-
-        // Scale the image to fit the button
-        Image image = pieceIcon.getImage();
-        Image scaledImage = image.getScaledInstance((int) (square.getWidth() * 0.8), (int) (square.getHeight() * 0.8), Image.SCALE_SMOOTH);
-        pieceIcon = new ImageIcon(scaledImage);
-        return pieceIcon;
+    // Refreshes only the squares whose bit is set
+    private void updateSquares(long squares) {
+        if (paintedBoard != null) {
+            paintedBoard.repaintSquares(squares);
+            return;
+        }
+        for (; squares != 0; squares &= squares - 1) {
+            int position = Long.numberOfTrailingZeros(squares);
+            int row = position / Constants.BOARD_SIZE;
+            int col = position % Constants.BOARD_SIZE;
+            JButton square = (JButton) boardPanel.getComponent(position);
+            // Clear the previous icon
+            square.setIcon(null);
+            int piece = model.getPiece(position);
+            if (piece == Constants.EMPTY){
+                square.setBackground((row + col) % 2 == 0 ? Color.WHITE : Color.DARK_GRAY);
+            }
+            else if (piece == Constants.WALL) {
+                square.setBackground(Color.BLACK);
+            } else {
+                // Set the icon to the button
+                square.setIcon(new ImageIcon(QueenImages.get(piece, square.getWidth())));
+            }
+        }
     }
 
-
     public void gameOver(){
+        if (paintedBoard != null) {
+            paintedBoard.disableInput();
+            return;
+        }
         for (int row = 0; row < Constants.BOARD_SIZE; row++) {
             for (int col = 0; col < Constants.BOARD_SIZE; col++) {
                 JButton square = (JButton) boardPanel.getComponent(row * Constants.BOARD_SIZE + col);
@@ -103,8 +116,8 @@ public class View extends JFrame implements Observer{
 
 
     @Override
-    public void onBoardChanged() {
-        updateBoard();
+    public void onBoardChanged(long changedSquares) {
+        updateSquares(changedSquares);
     }
 
     @Override